@@ -0,0 +1,123 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовая вставка вещей и бронирований на H2 при разном шаге последовательностей и размере JDBC-пакета.
+ * allocationSize=1 и batchSize=1 воспроизводят прежнее поведение IDENTITY: отдельный INSERT на каждую строку.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final long BOOKER_ID = 2L;
+    private static final int ITEMS_PER_IMPORT = 500;
+    private static final int BOOKINGS_PER_IMPORT = 500;
+    private static final int BOOKED_ITEMS = 50;
+
+    @Param({"1", "50"})
+    private int allocationSize;
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> bookedItemIds;
+    private LocalDateTime nextStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:insert;DB_CLOSE_DELAY=-1",
+                        "--shareit.id.allocation-size=" + allocationSize,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+                        "--logging.level.org.springframework.transaction.interceptor=OFF",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=OFF");
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into users (id, name, email) values (?, ?, ?)",
+                List.of(new Object[]{OWNER_ID, "owner", "owner@mail.ru"},
+                        new Object[]{BOOKER_ID, "booker", "booker@mail.ru"}));
+        context.getBean(UserExistenceIndex.class).warmUp();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        bookedItemIds = importItems(BOOKED_ITEMS).stream().map(ItemDto::getId).toList();
+        nextStart = LocalDateTime.now().plusDays(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS_PER_IMPORT)
+    public List<ItemDto> importItems() {
+        return importItems(ITEMS_PER_IMPORT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKINGS_PER_IMPORT)
+    public List<BookingDtoResponse> importBookings() {
+        List<BookingDtoRequest> requests = new ArrayList<>(BOOKINGS_PER_IMPORT);
+        for (int i = 0; i < BOOKINGS_PER_IMPORT; i++) {
+            Long itemId = bookedItemIds.get(i % BOOKED_ITEMS);
+            LocalDateTime start = nextStart.plusHours(i / BOOKED_ITEMS);
+            requests.add(new BookingDtoRequest(start, start.plusMinutes(30), itemId));
+        }
+        nextStart = nextStart.plusHours(BOOKINGS_PER_IMPORT / BOOKED_ITEMS);
+        return bookingService.addBookings(BOOKER_ID, requests);
+    }
+
+    private List<ItemDto> importItems(int count) {
+        return transactionTemplate.execute(status -> {
+            List<ItemDto> imported = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                imported.add(itemService.addItem(OWNER_ID,
+                        new ItemDto(null, "Дрель " + i, "Ударная дрель " + i, true, null, null)));
+            }
+            return imported;
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemForBookingDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис вещей на H2: владелец с N вещами, по M бронирований и K комментариев на вещь.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final int BOOKERS = 50;
+
+    @Param({"100", "1000"})
+    private int items;
+    @Param({"20"})
+    private int bookingsPerItem;
+    @Param({"5"})
+    private int commentsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("benchmark")
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+                        "--logging.level.org.springframework.transaction.interceptor=OFF",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=OFF");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ItemSearchIndex.class).warmUp();
+        context.getBean(UserExistenceIndex.class).warmUp();
+        context.getBean(ItemBookingSummaryService.class).warmUp();
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void getAllItemsUser(Blackhole blackhole) {
+        itemService.getAllItemsUser(OWNER_ID, blackhole::consume);
+    }
+
+    @Benchmark
+    public ItemForBookingDto getItemAsOwner() {
+        return itemService.getItemDto(OWNER_ID, items / 2);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchIndexed() {
+        return itemService.getSearchOfText("дрель 1", 0, 20);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchSql() {
+        return itemRepository.findByNameOrDescription("дрель 1", Pageable.ofSize(20));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        for (long id = OWNER_ID; id <= BOOKERS + 1; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        long bookingId = 1;
+        long commentId = 1;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            itemRows.add(new Object[]{itemId, "Дрель " + itemId, "Ударная дрель, набор свёрл " + itemId, true,
+                    OWNER_ID});
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(i - bookingsPerItem / 2);
+                bookingRows.add(new Object[]{bookingId++, start, start.plusHours(20), itemId,
+                        bookingId % BOOKERS + 2, Status.APPROVED.name()});
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                commentRows.add(new Object[]{commentId++, "Отличная вещь " + i, itemId, commentId % BOOKERS + 2,
+                        now.minusDays(i)});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)", itemRows);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "values (?, ?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.batchUpdate(
+                "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)", commentRows);
+        jdbcTemplate.execute("analyze");
+    }
+}
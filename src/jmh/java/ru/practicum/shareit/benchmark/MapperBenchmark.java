@@ -0,0 +1,92 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        comments = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            User booker = User.builder().id(i + 2).name("user" + i).email("user" + i + "@mail.ru").build();
+            Item item = new Item();
+            item.setId(i);
+            item.setName("item" + i);
+            item.setDescription("description" + i);
+            item.setAvailable(true);
+            item.setOwner(owner);
+            items.add(item);
+            bookings.add(Booking.builder().id(i).start(now.plusHours(i)).end(now.plusHours(i + 1))
+                    .item(item).booker(booker).status(Status.APPROVED).build());
+            comments.add(Comment.builder().id(i).text("comment" + i).item(item).author(booker)
+                    .created(now.minusHours(i)).build());
+        }
+    }
+
+    @Benchmark
+    public void bookingToResponse(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingForResponseMapper(booking));
+        }
+    }
+
+    @Benchmark
+    public void bookingToItemInfo(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toItemBookingInfoDto(booking));
+        }
+    }
+
+    @Benchmark
+    public void itemToDto(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(ItemMapper.toItemDto(item));
+        }
+    }
+
+    @Benchmark
+    public List<CommentDtoResponse> commentList() {
+        return CommentMapper.commentDtoList(comments);
+    }
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнивает пропускную способность и p99 задержки HTTP API на потоках платформы и на виртуальных потоках.
+ * Для каждого режима поднимает приложение на H2 и случайном порту, заполняет базу и гоняет смесь
+ * запросов владельца и поиска с заданным числом одновременных клиентов.
+ * Запуск: {@code mvn -Ploadtest verify}; параметры задаются системными свойствами loadtest.*.
+ */
+public class ThreadModeLoadTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int OWNERS = 50;
+    private static final int ITEMS_PER_OWNER = 40;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    private final int clients = Integer.getInteger("loadtest.clients", 400);
+    private final int requests = Integer.getInteger("loadtest.requests", 40_000);
+    private final int warmupRequests = Integer.getInteger("loadtest.warmup", 5_000);
+    private final int poolSize = Integer.getInteger("loadtest.pool-size", 10);
+
+    public static void main(String[] args) throws Exception {
+        new ThreadModeLoadTest().run(Path.of(args.length > 0 ? args[0] : "target/loadtest-result.json"));
+    }
+
+    private void run(Path output) throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.add(measure(virtual));
+        }
+        System.out.printf("%n%-10s %8s %12s %10s %10s %10s %8s%n",
+                "mode", "clients", "req/s", "p50, ms", "p99, ms", "max, ms", "errors");
+        results.forEach(result -> System.out.printf("%-10s %8d %12.0f %10.2f %10.2f %10.2f %8d%n",
+                result.mode(), clients, result.throughput(), result.p50(), result.p99(), result.max(),
+                result.errors()));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, results.stream().map(Result::toJson).toList().toString());
+    }
+
+    private Result measure(boolean virtual) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("loadtest")
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--shareit.admission.timeout=PT30S",
+                        "--logging.level.root=WARN",
+                        "--logging.level.ru.practicum.shareit.util=INFO",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+                        "--logging.level.org.springframework.transaction.interceptor=OFF",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=OFF")) {
+            seed(context.getBean(JdbcTemplate.class));
+            context.getBean(UserExistenceIndex.class).warmUp();
+            context.getBean(ItemSearchIndex.class).warmUp();
+            context.getBean(ItemBookingSummaryService.class).warmUp();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build()) {
+                load(client, port, warmupRequests, new long[warmupRequests]);
+                long[] latencies = new long[requests];
+                long started = System.nanoTime();
+                int errors = load(client, port, requests, latencies);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                Arrays.sort(latencies);
+                return new Result(mode, requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                        latencies[latencies.length - 1] / 1e6, errors);
+            }
+        }
+    }
+
+    private int load(HttpClient client, int port, int total, long[] latencies) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.submit(() -> {
+                    int n;
+                    while ((n = next.getAndIncrement()) < total) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response =
+                                    client.send(request(port, n), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        latencies[n] = System.nanoTime() - started;
+                    }
+                });
+            }
+        }
+        return (int) errors.get();
+    }
+
+    private static HttpRequest request(int port, int n) {
+        long owner = n % OWNERS + 1;
+        long item = (owner - 1) * ITEMS_PER_OWNER + n % ITEMS_PER_OWNER + 1;
+        String path = switch (n % 4) {
+            case 0 -> "/items";
+            case 1 -> "/items/" + item;
+            case 2 -> "/bookings/owner?from=0&size=20";
+            default -> "/items/search?text=" + URLEncoder.encode("дрель " + owner, StandardCharsets.UTF_8);
+        };
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(USER_HEADER, String.valueOf(owner))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= OWNERS * 2; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        long bookingId = 1;
+        for (long owner = 1; owner <= OWNERS; owner++) {
+            for (int i = 0; i < ITEMS_PER_OWNER; i++) {
+                long itemId = (owner - 1) * ITEMS_PER_OWNER + i + 1;
+                items.add(new Object[]{itemId, "Дрель " + owner + "-" + i, "Ударная дрель " + itemId, true, owner});
+                for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                    LocalDateTime start = now.plusDays(b - BOOKINGS_PER_ITEM / 2);
+                    bookings.add(new Object[]{bookingId++, start, start.plusHours(20), itemId,
+                            OWNERS + 1 + bookingId % OWNERS, Status.APPROVED.name()});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into items (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.execute("analyze");
+    }
+
+    private record Result(String mode, double throughput, double p50, double p99, double max, int errors) {
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"mode\":\"%s\",\"throughput\":%.1f,\"p50Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f,\"errors\":%d}",
+                    mode, throughput, p50, p99, max, errors);
+        }
+    }
+}
@@ -2,12 +2,31 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.validation.ValidationConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 public class ShareItApp {
 
 	public static void main(String[] args) {
 		SpringApplication.run(ShareItApp.class, args);
 	}
 
+	@Bean
+	public Clock clock() {
+		return Clock.systemDefaultZone();
+	}
+
+	/**
+	 * Ограничения вроде @FutureOrPresent сравниваются с теми же часами, что и фазы бронирований.
+	 */
+	@Bean
+	public ValidationConfigurationCustomizer validationClock(Clock clock) {
+		return configuration -> configuration.clockProvider(() -> clock);
+	}
+
 }
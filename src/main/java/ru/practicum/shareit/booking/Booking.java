@@ -5,6 +5,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.util.SequenceId;
 
 import java.time.LocalDateTime;
 
@@ -19,22 +20,34 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "bookings", schema = "public")
+@NamedEntityGraph(name = Booking.DETAILS, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Booking {
+    public static final String DETAILS = "Booking.details";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenceId("bookings_seq")
     Long id;
     @Column(name = "start_date")
     LocalDateTime start;
     @Column(name = "end_date")
     LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "item_id")
     Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "booker_id")
     User booker;
     @Enumerated(EnumType.STRING)
-    @Column(name = "state")
+    @Column(name = "status")
     Status status;
+    // меняется только массовым обновлением планировщика фаз, иначе сохранение сущности затирало бы сдвиг
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", updatable = false)
+    Phase phase;
+    @Version
+    Long version;
 }
@@ -3,13 +3,20 @@ package ru.practicum.shareit.booking;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.utill.Constants;
+import ru.practicum.shareit.util.JsonStreams;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * TODO Sprint add-bookings.
@@ -20,6 +27,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService service;
+    private final JsonStreams jsonStreams;
 
     @PostMapping
     public BookingDtoResponse addBooking(@RequestHeader(Constants.USER_HEADER) long userId,
@@ -28,6 +36,21 @@ public class BookingController {
         return service.addBooking(userId, bookingDtoRequest);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDtoResponse> addBookings(@RequestHeader(Constants.USER_HEADER) long userId,
+                                                @RequestBody List<@Valid BookingDtoRequest> bookingDtoRequests) {
+        log.info("POST запрос на создание {} бронирований от пользователя ID: {}", bookingDtoRequests.size(), userId);
+        return service.addBookings(userId, bookingDtoRequests);
+    }
+
+    @PatchMapping("/approve-batch")
+    public List<BookingDtoResponse> updateBookings(@RequestHeader(Constants.USER_HEADER) long userId,
+                                                   @RequestParam Boolean approved,
+                                                   @RequestBody List<Long> bookingIds) {
+        log.info("PATCH запрос на обновление {} бронирований от пользователя ID: {}", bookingIds.size(), userId);
+        return service.updateBookings(bookingIds, userId, approved);
+    }
+
     @PatchMapping("/{booking-id}")
     public BookingDtoResponse updateBooking(@PathVariable("booking-id") long bookingId,
                                             @RequestHeader(Constants.USER_HEADER) long userId,
@@ -44,16 +67,44 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDtoResponse> getAllBookingByUser(@RequestParam(defaultValue = "ALL") String state,
-                                                        @RequestHeader(Constants.USER_HEADER) long userId) {
+    public ResponseEntity<StreamingResponseBody> getAllBookingByUser(
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestHeader(Constants.USER_HEADER) long userId,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("GET запрос на получение бронирований пользователя ID: {} со статусом {}", userId, state);
-        return service.getAllBookingByUser(state, userId);
+        return toResponse(service.getAllBookingByUser(state, userId, from, size, cursor), accept);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoResponse> getAllBookingByOwner(@RequestParam(defaultValue = "ALL") String state,
-                                                         @RequestHeader(Constants.USER_HEADER) long userId) {
+    public ResponseEntity<StreamingResponseBody> getAllBookingByOwner(
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestHeader(Constants.USER_HEADER) long userId,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("GET запрос на получение бронирований владельца ID: {} со статусом {}", userId, state);
-        return service.getAllBookingByOwner(state, userId);
+        if (from == null && size == null && cursor == null) {
+            return jsonStreams.stream(accept, (Consumer<BookingDtoResponse> consumer) ->
+                    service.getAllBookingByOwner(state, userId, consumer));
+        }
+        return toResponse(service.getAllBookingByOwner(state, userId, from, size, cursor), accept);
+    }
+
+    @GetMapping("/owner/stats")
+    public OwnerBookingStatsDto getOwnerStats(@RequestHeader(Constants.USER_HEADER) long userId) {
+        log.info("GET запрос на получение статистики бронирований владельца ID: {}", userId);
+        return service.getOwnerStats(userId);
+    }
+
+    private ResponseEntity<StreamingResponseBody> toResponse(BookingPageDto page, String accept) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.set(Constants.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return jsonStreams.stream(accept, headers, page.getBookings()::forEach);
     }
 }
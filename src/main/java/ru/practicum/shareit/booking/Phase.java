@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фаза бронирования относительно текущего времени. Хранится в bookings.phase и сдвигается
+ * {@code BookingPhaseScheduler} на границах бронирования, поэтому фильтры CURRENT, PAST и FUTURE
+ * сравнивают фазу, а не время начала и окончания с текущим моментом.
+ */
+public enum Phase {
+    UPCOMING,
+    ACTIVE,
+    FINISHED;
+
+    public static Phase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return FINISHED;
+        }
+        return start.isAfter(now) ? UPCOMING : ACTIVE;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Загрузка вещи: все бронирования, бронирования на неделю вперёд и доля времени окна статистики,
+ * занятая подтверждёнными бронированиями.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemUtilizationDto {
+    Long itemId;
+    String name;
+    long bookings;
+    long upcomingWeek;
+    double utilization;
+}
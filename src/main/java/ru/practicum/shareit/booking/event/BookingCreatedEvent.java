@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.event;
+
+/**
+ * Пользователь забронировал вещь; бронирование ждёт решения владельца.
+ */
+public record BookingCreatedEvent(long bookingId, long itemId, long ownerId, long bookerId) {
+}
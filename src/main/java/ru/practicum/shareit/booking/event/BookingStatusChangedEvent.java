@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.event;
+
+import ru.practicum.shareit.booking.Status;
+
+/**
+ * Владелец подтвердил или отклонил бронирование вещи.
+ */
+public record BookingStatusChangedEvent(long bookingId, long itemId, long bookerId, Status status) {
+}
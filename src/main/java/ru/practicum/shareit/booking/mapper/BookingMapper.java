@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Phase;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
@@ -10,14 +11,17 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
+import java.time.LocalDateTime;
+
 @UtilityClass
 public class BookingMapper {
-    public static Booking toBooking(BookingDtoRequest bookingDtoRequest, Item item, User user) {
+    public static Booking toBooking(BookingDtoRequest bookingDtoRequest, Item item, User user, LocalDateTime now) {
         Booking booking = new Booking();
         booking.setStart(bookingDtoRequest.getStart());
         booking.setEnd(bookingDtoRequest.getEnd());
         booking.setItem(item);
         booking.setBooker(user);
+        booking.setPhase(Phase.at(booking.getStart(), booking.getEnd(), now));
         return booking;
     }
 
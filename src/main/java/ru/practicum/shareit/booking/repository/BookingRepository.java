@@ -1,63 +1,180 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Phase;
 import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findByItemInAndStatus(List<Item> items, Status status, Sort sort);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     List<Booking> findByItemId(Long itemId);
 
+    @Override
+    @EntityGraph(Booking.DETAILS)
+    Optional<Booking> findById(Long id);
+
+    @Override
+    @EntityGraph(Booking.DETAILS)
+    List<Booking> findAllById(Iterable<Long> ids);
+
     boolean existsByItemIdAndBookerIdAndStatusAndEndBefore(
             Long itemId, Long userId, Status status, LocalDateTime end);
 
-    List<Booking> findByItemIdAndStartLessThanEqualAndEndGreaterThanEqual(
-            Long itemId, LocalDateTime start, LocalDateTime end);
-
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.status in :statuses
+        and b.end >= :from
+    """)
+    List<BookingSlot> findSlots(@Param("statuses") List<Status> statuses, @Param("from") LocalDateTime from);
 
-    List<Booking> findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(
-            Long userId, LocalDateTime start, LocalDateTime end);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.phase in :phases
+    """)
+    List<BookingSlot> findSlotsByPhaseIn(@Param("phases") Collection<Phase> phases);
+
+    /**
+     * Сдвигает фазу бронирований вперёд; бронирования, уже прошедшие эту фазу, не трогает.
+     */
+    @Modifying
+    @Query("update Booking b set b.phase = :phase where b.id in :ids and b.phase in :earlier")
+    int updatePhase(@Param("ids") Collection<Long> ids, @Param("phase") Phase phase,
+                    @Param("earlier") Collection<Phase> earlier);
+
+    /**
+     * Выставляет фазы, пропущенные пока приложение не работало, и фазы строк, добавленных в обход сервиса.
+     * Трогает только строки без фазы и строки, чья граница уже наступила; фаза сдвигается только вперёд.
+     */
+    @Modifying
+    @Query("""
+        update Booking b
+        set b.phase = case when b.end < :now then ru.practicum.shareit.booking.Phase.FINISHED
+                           when b.start <= :now then ru.practicum.shareit.booking.Phase.ACTIVE
+                           else ru.practicum.shareit.booking.Phase.UPCOMING end
+        where b.phase is null
+        or b.phase = ru.practicum.shareit.booking.Phase.UPCOMING and b.start <= :now
+        or b.phase = ru.practicum.shareit.booking.Phase.ACTIVE and b.end < :now
+    """)
+    int resolvePhases(@Param("now") LocalDateTime now);
 
-    List<Booking> findByBookerIdAndEndBeforeAndStatusOrderByStartDesc(
-            Long userId, LocalDateTime end, Status status);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.item.id in :itemIds
+        and b.status in :statuses
+        and b.start <= :to
+        and b.end >= :from
+        order by b.item.id, b.start, b.id
+    """)
+    List<BookingSlot> findSlotsByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                          @Param("statuses") List<Status> statuses,
+                                          @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(
-            Long userId, LocalDateTime start);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.status = :status
+        order by b.item.id, b.start, b.id
+    """)
+    Stream<BookingSlot> streamSlotsByStatus(@Param("status") Status status);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.item.id = :itemId
+        and b.status = :status
+        and b.start <= :now
+        order by b.start desc, b.id desc
+    """)
+    List<BookingSlot> findLastSlots(@Param("itemId") Long itemId, @Param("status") Status status,
+                                    @Param("now") LocalDateTime now, Limit limit);
 
-    List<Booking> findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(
-            Long ownerId, LocalDateTime start, LocalDateTime end);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.item.id = :itemId
+        and b.status = :status
+        and b.start > :now
+        order by b.start, b.id
+    """)
+    List<BookingSlot> findNextSlots(@Param("itemId") Long itemId, @Param("status") Status status,
+                                    @Param("now") LocalDateTime now, Limit limit);
 
-    List<Booking> findByItemOwnerIdAndEndBeforeAndStatusOrderByStartDesc(
-            Long ownerId, LocalDateTime end, Status status);
+    @Query("""
+        select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as start, b.end as end
+        from Booking b
+        where b.booker.id = :bookerId
+        and b.end >= :from
+    """)
+    List<BookingSlot> findSlotsByBookerId(@Param("bookerId") Long bookerId, @Param("from") LocalDateTime from);
 
-    List<Booking> findByItemOwnerIdAndStartAfterOrderByStartDesc(
-            Long ownerId, LocalDateTime start);
+    @Query("select distinct b.item.id from Booking b where b.booker.id = :bookerId")
+    List<Long> findItemIdsByBookerId(@Param("bookerId") Long bookerId);
 
-    @Query("select b from Booking b where b.booker.id = ?1 and b.status = 'WAITING' order by b.start DESC")
-    List<Booking> findWaitingBookingsByBooker(Long userId);
+    @Query("""
+        select count(b) > 0
+        from Booking b
+        where b.item.id = :itemId
+        and b.status in :statuses
+        and b.start <= :end
+        and b.end >= :start
+    """)
+    boolean existsOverlap(@Param("itemId") Long itemId,
+                          @Param("statuses") List<Status> statuses,
+                          @Param("start") LocalDateTime start,
+                          @Param("end") LocalDateTime end);
 
-    @Query("select b from Booking b where b.booker.id = ?1 and b.status = 'REJECTED' order by b.start DESC")
-    List<Booking> findRejectedBookingsByBooker(Long userId);
+    boolean existsByIdAndStatusIn(Long id, List<Status> statuses);
 
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.status = 'WAITING' order by b.start DESC")
-    List<Booking> findWaitingBookingsByOwner(Long ownerId);
+    boolean existsByStatus(Status status);
 
-    @Query("select b from Booking b where b.item.owner.id = ?1 and b.status = 'REJECTED' order by b.start DESC")
-    List<Booking> findRejectedBookingsByOwner(Long ownerId);
+    /**
+     * Статистика бронирований владельца по вещам одним групповым запросом: счётчики по состояниям
+     * {@code StateBooking}, подтверждённое время в окне [from, now] и бронирования на неделю вперёд.
+     */
+    @Query("""
+        select it.id as itemId, it.name as itemName,
+        count(b) as total,
+        sum(case when b.status = ru.practicum.shareit.booking.Status.WAITING then 1 else 0 end) as waiting,
+        sum(case when b.status in (ru.practicum.shareit.booking.Status.REJECTED,
+            ru.practicum.shareit.booking.Status.CANCELED) then 1 else 0 end) as rejected,
+        sum(case when b.start <= :now and b.end >= :now then 1 else 0 end) as current,
+        sum(case when b.end < :now and b.status = ru.practicum.shareit.booking.Status.APPROVED
+            then 1 else 0 end) as past,
+        sum(case when b.start > :now then 1 else 0 end) as future,
+        sum(case when b.start > :now and b.start <= :weekEnd and b.status in (
+            ru.practicum.shareit.booking.Status.WAITING, ru.practicum.shareit.booking.Status.APPROVED)
+            then 1 else 0 end) as upcoming,
+        sum(case when b.status = ru.practicum.shareit.booking.Status.APPROVED and b.start < :now and b.end > :from
+            then (least(b.end, :now) - greatest(b.start, :from)) by second else 0 end) as bookedSeconds,
+        min(case when b.start > :now then b.start end) as nextStart,
+        min(case when b.end >= :now then b.end end) as nextEnd,
+        min(case when b.start > :weekEnd then b.start end) as nextBeyondWeek
+        from Booking b
+        join b.item it
+        where it.owner.id = :ownerId
+        group by it.id, it.name
+        order by it.id
+    """)
+    List<ItemBookingStats> aggregateOwnerStats(@Param("ownerId") Long ownerId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("weekEnd") LocalDateTime weekEnd);
 
     @Query("""
         select new java.lang.Boolean(COUNT(b) > 0)
@@ -66,22 +183,4 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         and b.booker.id = ?4
     """)
     Boolean existsValidBooking(Long itemId, Status status, LocalDateTime end, Long userId);
-
-    @Query("""
-    select b from Booking b
-    where b.booker.id = :userId
-    and b.status in :statuses
-    order by b.start DESC
-""")
-    List<Booking> findByBookerIdAndStatusIn(
-            @Param("userId") Long userId,
-            @Param("statuses") List<Status> statuses);
-
-    @Query("""
-        select b from Booking b
-        where b.item.owner.id = ?1
-        and (b.status = ?2 or b.status = ?3)
-        order by b.start DESC
-    """)
-    List<Booking> findByOwnerAndStatusIn(Long ownerId, Status status1, Status status2);
-}
\ No newline at end of file
+}
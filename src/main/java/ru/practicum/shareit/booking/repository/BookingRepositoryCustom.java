@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.StateBooking;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Списки бронирований для чтения: DTO собираются из строк результата, без загрузки сущностей.
+ * Порядок - по убыванию начала и id; {@code after} задаёт позицию курсора, {@code limit = null} - без ограничения.
+ */
+public interface BookingRepositoryCustom {
+    List<BookingDtoResponse> findBookerBookings(long bookerId, StateBooking state, BookingCursor after, int offset,
+                                                Integer limit);
+
+    List<BookingDtoResponse> findOwnerBookings(long ownerId, StateBooking state, BookingCursor after, int offset,
+                                               Integer limit);
+
+    /**
+     * Все бронирования владельца без постраничности; поток читается порциями и должен закрываться внутри транзакции.
+     */
+    Stream<BookingDtoResponse> streamOwnerBookings(long ownerId, StateBooking state);
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import ru.practicum.shareit.booking.Phase;
+import ru.practicum.shareit.booking.StateBooking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final String SELECT = """
+            select b.id, b.start, b.end, b.status,
+                   i.id, i.name, i.description, i.available, i.owner.id, i.request.id,
+                   u.id, u.name, u.email
+            from Booking b
+            join b.item i
+            join b.booker u
+            """;
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoResponse> findBookerBookings(long bookerId, StateBooking state, BookingCursor after,
+                                                       int offset, Integer limit) {
+        return find("u.id", bookerId, state, after, offset, limit);
+    }
+
+    @Override
+    public List<BookingDtoResponse> findOwnerBookings(long ownerId, StateBooking state, BookingCursor after,
+                                                      int offset, Integer limit) {
+        return find("i.owner.id", ownerId, state, after, offset, limit);
+    }
+
+    @Override
+    public Stream<BookingDtoResponse> streamOwnerBookings(long ownerId, StateBooking state) {
+        return query("i.owner.id", ownerId, state, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()
+                .map(BookingRepositoryImpl::toResponse);
+    }
+
+    private List<BookingDtoResponse> find(String userPath, long userId, StateBooking state, BookingCursor after,
+                                          int offset, Integer limit) {
+        TypedQuery<Object[]> query = query(userPath, userId, state, after);
+        query.setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<Object[]> rows = query.getResultList();
+        List<BookingDtoResponse> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(toResponse(row));
+        }
+        return result;
+    }
+
+    /**
+     * Состояния, зависящие от времени, выбираются по фазе: запрос не зависит от текущего момента
+     * и идёт по индексам (booker_id | item_id, phase, start_date).
+     */
+    private TypedQuery<Object[]> query(String userPath, long userId, StateBooking state, BookingCursor after) {
+        StringBuilder jpql = new StringBuilder(SELECT).append("where ").append(userPath).append(" = :userId");
+        switch (state) {
+            case ALL -> {
+            }
+            case CURRENT, FUTURE -> jpql.append(" and b.phase = :phase");
+            case PAST -> jpql.append(" and b.phase = :phase and b.status = :status");
+            case WAITING -> jpql.append(" and b.status = :status");
+            case REJECTED -> jpql.append(" and b.status in :statuses");
+        }
+        if (after != null) {
+            jpql.append(" and (b.start < :afterStart or b.start = :afterStart and b.id < :afterId)");
+        }
+        jpql.append(" order by b.start desc, b.id desc");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("userId", userId);
+        switch (state) {
+            case CURRENT -> query.setParameter("phase", Phase.ACTIVE);
+            case FUTURE -> query.setParameter("phase", Phase.UPCOMING);
+            case PAST -> query.setParameter("phase", Phase.FINISHED).setParameter("status", Status.APPROVED);
+            case WAITING -> query.setParameter("status", Status.WAITING);
+            case REJECTED -> query.setParameter("statuses", List.of(Status.REJECTED, Status.CANCELED));
+            default -> {
+            }
+        }
+        if (after != null) {
+            query.setParameter("afterStart", after.getStart()).setParameter("afterId", after.getId());
+        }
+        return query;
+    }
+
+    private static BookingDtoResponse toResponse(Object[] row) {
+        return BookingDtoResponse.builder()
+                .id((Long) row[0])
+                .start((LocalDateTime) row[1])
+                .end((LocalDateTime) row[2])
+                .status((Status) row[3])
+                .item(new ItemDto((Long) row[4], (String) row[5], (String) row[6], (Boolean) row[7],
+                        (Long) row[8], (Long) row[9]))
+                .booker(new UserDto((Long) row[10], (String) row[11], (String) row[12]))
+                .build();
+    }
+}
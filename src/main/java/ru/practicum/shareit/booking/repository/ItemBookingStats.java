@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Счётчики бронирований одной вещи на момент запроса; ближайшие границы показывают, когда они устареют.
+ */
+public interface ItemBookingStats {
+    Long getItemId();
+
+    String getItemName();
+
+    long getTotal();
+
+    long getWaiting();
+
+    long getRejected();
+
+    long getCurrent();
+
+    long getPast();
+
+    long getFuture();
+
+    long getUpcoming();
+
+    Long getBookedSeconds();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+
+    LocalDateTime getNextBeyondWeek();
+}
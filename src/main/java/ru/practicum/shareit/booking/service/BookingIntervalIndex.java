@@ -0,0 +1,242 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlot;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс занятых интервалов по вещам: для каждой вещи хранится упорядоченное по началу множество
+ * бронирований в статусах WAITING и APPROVED. Закончившиеся интервалы периодически вычищаются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    static final List<Status> ACTIVE_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+    private volatile boolean warmedUp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<BookingSlot> slots = bookingRepository.findSlots(ACTIVE_STATUSES, LocalDateTime.now());
+        for (BookingSlot slot : slots) {
+            add(slot.getItemId(), new Slot(slot.getId(), slot.getStart(), slot.getEnd()));
+        }
+        warmedUp = true;
+        log.info("Индекс бронирований загружен: {} интервалов по {} вещам", slots.size(), schedules.size());
+    }
+
+    public boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!warmedUp) {
+            return bookingRepository.existsOverlap(itemId, ACTIVE_STATUSES, start, end);
+        }
+        ItemSchedule schedule = schedules.get(itemId);
+        if (schedule == null) {
+            return false;
+        }
+        Optional<Slot> conflict;
+        while ((conflict = schedule.findOverlap(start, end)).isPresent()) {
+            Slot slot = conflict.get();
+            if (bookingRepository.existsByIdAndStatusIn(slot.bookingId(), ACTIVE_STATUSES)) {
+                return true;
+            }
+            schedule.remove(slot);
+        }
+        return false;
+    }
+
+    /**
+     * Занятые интервалы вещей, пересекающиеся с [from, to], по возрастанию начала; вещей без бронирований
+     * в результате нет. До прогрева индекса интервалы читаются одним запросом.
+     * Снятое не через сервис бронирование может остаться в индексе, тогда интервал покажется занятым.
+     */
+    public Map<Long, List<Slot>> findBusy(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<Slot>> busy = new HashMap<>();
+        if (!warmedUp) {
+            for (BookingSlot slot : bookingRepository.findSlotsByItemIdIn(itemIds, ACTIVE_STATUSES, from, to)) {
+                busy.computeIfAbsent(slot.getItemId(), id -> new ArrayList<>())
+                        .add(new Slot(slot.getId(), slot.getStart(), slot.getEnd()));
+            }
+            return busy;
+        }
+        for (Long itemId : itemIds) {
+            ItemSchedule schedule = schedules.get(itemId);
+            if (schedule != null) {
+                List<Slot> slots = schedule.between(from, to);
+                if (!slots.isEmpty()) {
+                    busy.put(itemId, slots);
+                }
+            }
+        }
+        return busy;
+    }
+
+    public void addAfterCommit(Booking booking) {
+        Slot slot = new Slot(booking.getId(), booking.getStart(), booking.getEnd());
+        long itemId = booking.getItem().getId();
+        TransactionHooks.afterCommit(() -> add(itemId, slot));
+    }
+
+    public void removeAfterCommit(Booking booking) {
+        Slot slot = new Slot(booking.getId(), booking.getStart(), booking.getEnd());
+        long itemId = booking.getItem().getId();
+        TransactionHooks.afterCommit(() -> {
+            ItemSchedule schedule = schedules.get(itemId);
+            if (schedule != null) {
+                schedule.remove(slot);
+            }
+        });
+    }
+
+    /**
+     * Убирает интервалы, удалённые каскадом вместе с пользователем: его бронирования и все бронирования
+     * его вещей. Интервалы собираются до удаления, пока бронирования ещё есть в БД.
+     */
+    public void removeUserAfterCommit(List<BookingSlot> bookedSlots, List<Long> ownedItemIds) {
+        TransactionHooks.afterCommit(() -> {
+            ownedItemIds.forEach(schedules::remove);
+            for (BookingSlot slot : bookedSlots) {
+                ItemSchedule schedule = schedules.get(slot.getItemId());
+                if (schedule != null) {
+                    schedule.remove(new Slot(slot.getId(), slot.getStart(), slot.getEnd()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Убирает закончившиеся интервалы и вещи, у которых интервалов не осталось.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.index.prune-delay:PT10M}",
+            initialDelayString = "${shareit.booking.index.prune-delay:PT10M}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long itemId : schedules.keySet()) {
+            schedules.computeIfPresent(itemId, (id, schedule) -> schedule.prune(now) ? null : schedule);
+        }
+    }
+
+    private void add(long itemId, Slot slot) {
+        schedules.compute(itemId, (id, schedule) -> {
+            ItemSchedule result = schedule == null ? new ItemSchedule() : schedule;
+            result.add(slot);
+            return result;
+        });
+    }
+
+    public record Slot(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        static final Comparator<Slot> ORDER = Comparator.comparing(Slot::start).thenComparing(Slot::bookingId);
+    }
+
+    /**
+     * Интервалы вещи по возрастанию начала. Бронирования, созданные в обход сервиса, могут пересекаться,
+     * поэтому поиск идёт назад от конца запроса до начала, отстоящего от него на самый длинный интервал.
+     */
+    static class ItemSchedule {
+        private final NavigableSet<Slot> slots = new TreeSet<>(Slot.ORDER);
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private Duration longest = Duration.ZERO;
+
+        Optional<Slot> findOverlap(LocalDateTime start, LocalDateTime end) {
+            lock.readLock().lock();
+            try {
+                LocalDateTime earliest = start.minus(longest);
+                for (Slot slot : slots.headSet(new Slot(Long.MAX_VALUE, end, null), true).descendingSet()) {
+                    if (slot.start().isBefore(earliest)) {
+                        break;
+                    }
+                    if (!slot.end().isBefore(start)) {
+                        return Optional.of(slot);
+                    }
+                }
+                return Optional.empty();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Slot> between(LocalDateTime from, LocalDateTime to) {
+            lock.readLock().lock();
+            try {
+                List<Slot> result = new ArrayList<>();
+                for (Slot slot : slots.tailSet(new Slot(Long.MIN_VALUE, from.minus(longest), null), true)) {
+                    if (slot.start().isAfter(to)) {
+                        break;
+                    }
+                    if (!slot.end().isBefore(from)) {
+                        result.add(slot);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(Slot slot) {
+            lock.writeLock().lock();
+            try {
+                slots.add(slot);
+                Duration length = Duration.between(slot.start(), slot.end());
+                if (length.compareTo(longest) > 0) {
+                    longest = length;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Slot slot) {
+            lock.writeLock().lock();
+            try {
+                slots.remove(slot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Убирает интервалы, закончившиеся раньше now, и пересчитывает самый длинный из оставшихся.
+         *
+         * @return true, если интервалов не осталось
+         */
+        boolean prune(LocalDateTime now) {
+            lock.writeLock().lock();
+            try {
+                slots.headSet(new Slot(Long.MAX_VALUE, now, null)).removeIf(slot -> slot.end().isBefore(now));
+                longest = slots.stream()
+                        .map(slot -> Duration.between(slot.start(), slot.end()))
+                        .max(Comparator.naturalOrder())
+                        .orElse(Duration.ZERO);
+                return slots.isEmpty();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
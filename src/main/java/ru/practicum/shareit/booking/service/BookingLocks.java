@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Сериализует создание бронирований одной вещи от проверки пересечений до коммита.
+ * STRIPED — блокировки в памяти, вещи распределены по фиксированному числу полос; годится для одного
+ * экземпляра приложения и позволяет проверять пересечения по {@link BookingIntervalIndex}.
+ * DATABASE — блокировка строк вещей (SELECT ... FOR UPDATE) до конца транзакции; работает и с несколькими
+ * экземплярами, поэтому пересечения проверяются запросом к БД, а не по индексу в памяти.
+ */
+@Slf4j
+@Component
+public class BookingLocks {
+    public enum Mode { STRIPED, DATABASE }
+
+    private final ItemRepository itemRepository;
+    private final Mode mode;
+    private final Duration timeout;
+    private final ReentrantLock[] stripes;
+
+    public BookingLocks(ItemRepository itemRepository,
+                        @Value("${shareit.booking.lock-mode:striped}") Mode mode,
+                        @Value("${shareit.booking.lock-stripes:64}") int stripes,
+                        @Value("${shareit.booking.lock-timeout:PT5S}") Duration timeout) {
+        this.itemRepository = itemRepository;
+        this.mode = mode;
+        this.timeout = timeout;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        log.info("Блокировки бронирований: режим {}, полос {}, ожидание не дольше {}", mode, stripes, timeout);
+    }
+
+    public boolean isDatabaseMode() {
+        return mode == Mode.DATABASE;
+    }
+
+    /**
+     * Блокирует вещи до конца текущей транзакции. Полосы и строки берутся в порядке возрастания,
+     * поэтому пакеты с общими вещами не взаимоблокируются.
+     */
+    public void lock(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Блокировка вещей возможна только внутри транзакции");
+        }
+        if (mode == Mode.DATABASE) {
+            itemRepository.findWithLockByIdInOrderById(itemIds);
+            return;
+        }
+        TreeSet<Integer> indexes = new TreeSet<>();
+        itemIds.forEach(itemId -> indexes.add(Math.floorMod(Long.hashCode(itemId), stripes.length)));
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        TransactionHooks.afterCompletion(() -> acquired.forEach(ReentrantLock::unlock));
+        for (int index : indexes) {
+            ReentrantLock stripe = stripes[index];
+            if (!tryLock(stripe)) {
+                throw new ConflictException("Вещь сейчас бронируют другие пользователи, повторите запрос");
+            }
+            acquired.add(stripe);
+        }
+    }
+
+    private boolean tryLock(ReentrantLock stripe) {
+        try {
+            return stripe.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.outbox.OutboxDelivery;
+
+/**
+ * Уведомления участников бронирования. Канала доставки пока нет, поэтому уведомления пишутся в лог;
+ * обработчики вызываются диспетчером outbox, вне запроса, создавшего или изменившего бронирование.
+ */
+@Slf4j
+@Component
+public class BookingNotifier {
+    @EventListener
+    public void onBookingCreated(OutboxDelivery<BookingCreatedEvent> delivery) {
+        BookingCreatedEvent event = delivery.event();
+        log.info("Уведомление владельцу ID: {}: вещь ID: {} забронирована пользователем ID: {}, бронирование ID: {}",
+                event.ownerId(), event.itemId(), event.bookerId(), event.bookingId());
+    }
+
+    @EventListener
+    public void onBookingStatusChanged(OutboxDelivery<BookingStatusChangedEvent> delivery) {
+        BookingStatusChangedEvent event = delivery.event();
+        log.info("Уведомление пользователю ID: {}: бронирование ID: {} вещи ID: {} получило статус {}",
+                event.bookerId(), event.bookingId(), event.itemId(), event.status());
+    }
+}
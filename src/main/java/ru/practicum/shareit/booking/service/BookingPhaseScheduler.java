@@ -0,0 +1,179 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Phase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlot;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Сдвигает фазы бронирований (UPCOMING, ACTIVE, FINISHED) по мере наступления их начала и окончания.
+ * Границы лежат в очереди с задержкой; поток планировщика забирает наступившие и обновляет фазы пакетом.
+ * При старте фазы, пропущенные за время простоя, выставляются одним запросом, а границы незавершённых
+ * бронирований загружаются в очередь. Тот же запрос периодически сверяет фазы, чтобы бронирования,
+ * добавленные в обход сервиса, не застревали в старой фазе. Обновление только двигает фазу вперёд,
+ * поэтому повторные границы и несколько экземпляров приложения ему не мешают.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler implements DisposableBean {
+    private static final List<Phase> PENDING = List.of(Phase.UPCOMING, Phase.ACTIVE);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final Counter shifted;
+    private final DelayQueue<Boundary> boundaries = new DelayQueue<>();
+    private volatile Thread worker;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 Clock clock,
+                                 @Value("${shareit.booking.phase.batch-size:500}") int batchSize,
+                                 @Value("${shareit.booking.phase.retry-delay:PT5S}") Duration retryDelay) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.shifted = Counter.builder("shareit.booking.phase.shifted")
+                .description("Бронирования, фаза которых сдвинута планировщиком")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.phase.pending", boundaries, DelayQueue::size)
+                .description("Границы бронирований, ожидающие наступления")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int resolved = resolvePhases();
+        List<BookingSlot> slots = bookingRepository.findSlotsByPhaseIn(PENDING);
+        slots.forEach(slot -> schedule(slot.getId(), slot.getStart(), slot.getEnd()));
+        worker = Thread.ofPlatform().name("booking-phase").daemon().start(this::run);
+        log.info("Планировщик фаз бронирований запущен: фаз выставлено {}, границ в очереди {}",
+                resolved, boundaries.size());
+    }
+
+    /**
+     * Сверяет фазы всех незавершённых бронирований с текущим временем.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.phase.reconcile-delay:PT1M}",
+            initialDelayString = "${shareit.booking.phase.reconcile-delay:PT1M}")
+    public void reconcile() {
+        if (worker == null) {
+            return;
+        }
+        int resolved = resolvePhases();
+        if (resolved > 0) {
+            shifted.increment(resolved);
+            log.debug("Сверка фаз сдвинула {} бронирований", resolved);
+        }
+    }
+
+    public void scheduleAfterCommit(Booking booking) {
+        Long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        TransactionHooks.afterCommit(() -> schedule(bookingId, start, end));
+    }
+
+    @Override
+    public void destroy() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private int resolvePhases() {
+        return transactionTemplate.execute(status -> bookingRepository.resolvePhases(LocalDateTime.now(clock)));
+    }
+
+    private void schedule(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        boundaries.add(new Boundary(bookingId, Phase.ACTIVE, start, clock));
+        boundaries.add(new Boundary(bookingId, Phase.FINISHED, end, clock));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Boundary> due = new ArrayList<>();
+            try {
+                due.add(boundaries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boundaries.drainTo(due, batchSize - 1);
+            shift(due);
+        }
+    }
+
+    /**
+     * Фазы сдвигаются по порядку, поэтому начало и окончание, наступившие вместе, дают FINISHED.
+     */
+    private void shift(List<Boundary> due) {
+        Map<Phase, List<Long>> byPhase = due.stream()
+                .collect(groupingBy(Boundary::phase, () -> new EnumMap<>(Phase.class),
+                        mapping(Boundary::bookingId, toList())));
+        try {
+            int updated = transactionTemplate.execute(status -> byPhase.entrySet().stream()
+                    .mapToInt(entry -> bookingRepository.updatePhase(entry.getValue(), entry.getKey(),
+                            earlier(entry.getKey())))
+                    .sum());
+            shifted.increment(updated);
+        } catch (RuntimeException e) {
+            log.warn("Фазы {} бронирований не сдвинуты, повтор через {}: {}", due.size(), retryDelay,
+                    e.getMessage());
+            LocalDateTime retryAt = LocalDateTime.now(clock).plus(retryDelay);
+            due.forEach(boundary -> boundaries.add(
+                    new Boundary(boundary.bookingId(), boundary.phase(), retryAt, clock)));
+        }
+    }
+
+    private static List<Phase> earlier(Phase phase) {
+        return Arrays.asList(Phase.values()).subList(0, phase.ordinal());
+    }
+
+    private record Boundary(Long bookingId, Phase phase, LocalDateTime at, Clock clock) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(clock), at));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return at.compareTo(((Boundary) other).at);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.StateBooking;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Время и размер выдачи списков бронирований отдельно для арендатора и владельца и для каждого
+ * {@link StateBooking}: разные состояния идут по разным индексам и отличаются на порядки.
+ */
+@Component
+public class BookingQueryMetrics {
+    public enum Role { BOOKER, OWNER }
+
+    private final Map<Role, Map<StateBooking, Meters>> meters = new EnumMap<>(Role.class);
+
+    public BookingQueryMetrics(MeterRegistry meterRegistry) {
+        for (Role role : Role.values()) {
+            Map<StateBooking, Meters> byState = new EnumMap<>(StateBooking.class);
+            for (StateBooking state : StateBooking.values()) {
+                byState.put(state, new Meters(meterRegistry, role, state));
+            }
+            meters.put(role, byState);
+        }
+    }
+
+    public <T> List<T> recordPage(Role role, StateBooking state, Supplier<List<T>> query) {
+        Meters meter = meters.get(role).get(state);
+        long start = System.nanoTime();
+        List<T> result = query.get();
+        meter.record(System.nanoTime() - start, result.size());
+        return result;
+    }
+
+    /**
+     * Потоковая выдача измеряется целиком, вместе с передачей строк получателю.
+     */
+    public <T> void recordStream(Role role, StateBooking state, Supplier<Stream<T>> query, Consumer<T> consumer) {
+        Meters meter = meters.get(role).get(state);
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        try (Stream<T> stream = query.get()) {
+            stream.forEach(row -> {
+                rows[0]++;
+                consumer.accept(row);
+            });
+        }
+        meter.record(System.nanoTime() - start, rows[0]);
+    }
+
+    private static final class Meters {
+        private final Timer timer;
+        private final DistributionSummary size;
+
+        private Meters(MeterRegistry registry, Role role, StateBooking state) {
+            String roleTag = role.name().toLowerCase(Locale.ROOT);
+            this.timer = Timer.builder("shareit.bookings.query")
+                    .description("Время выборки списка бронирований")
+                    .tag("role", roleTag)
+                    .tag("state", state.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.size = DistributionSummary.builder("shareit.bookings.query.size")
+                    .description("Число бронирований в выдаче")
+                    .tag("role", roleTag)
+                    .tag("state", state.name())
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(10_000.0)
+                    .register(registry);
+        }
+
+        private void record(long nanos, long rows) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            size.record(rows);
+        }
+    }
+}
@@ -2,17 +2,28 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDtoResponse addBooking(long userId, BookingDtoRequest bookingDtoRequest);
 
+    List<BookingDtoResponse> addBookings(long userId, List<BookingDtoRequest> bookingDtoRequests);
+
     BookingDtoResponse updateBooking(long bookingId, long userId, Boolean approved);
 
+    List<BookingDtoResponse> updateBookings(List<Long> bookingIds, long userId, Boolean approved);
+
     BookingDtoResponse getBooking(long bookingId, long userId);
 
-    List<BookingDtoResponse> getAllBookingByUser(String state, long userId);
+    BookingPageDto getAllBookingByUser(String state, long userId, Integer from, Integer size, String cursor);
+
+    BookingPageDto getAllBookingByOwner(String state, long userId, Integer from, Integer size, String cursor);
+
+    void getAllBookingByOwner(String state, long userId, Consumer<BookingDtoResponse> consumer);
 
-    List<BookingDtoResponse> getAllBookingByOwner(String state, long userId);
+    OwnerBookingStatsDto getOwnerStats(long userId);
 }
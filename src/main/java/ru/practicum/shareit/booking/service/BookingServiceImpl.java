@@ -2,35 +2,65 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.StateBooking;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingQueryMetrics.Role;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.outbox.Outbox;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingLocks bookingLocks;
+    private final UserExistenceIndex userExistenceIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final Outbox outbox;
+    private final BookingQueryMetrics bookingQueryMetrics;
+    private final OwnerBookingStats ownerBookingStats;
+    private final BookingPhaseScheduler bookingPhaseScheduler;
+    private final Clock clock;
 
     @Transactional
     @Override
@@ -43,118 +73,158 @@ public class BookingServiceImpl implements BookingService {
         }
 
         User user = checkUser(userId);
+        bookingLocks.lock(List.of(item.getId()));
         validateBooking(bookingDtoRequest, item, user);
 
-        Booking booking = BookingMapper.toBooking(bookingDtoRequest, item, user);
+        Booking booking = BookingMapper.toBooking(bookingDtoRequest, item, user, LocalDateTime.now(clock));
         booking.setStatus(Status.WAITING);
         Booking result = bookingRepository.save(booking);
+        bookingIntervalIndex.addAfterCommit(result);
+        publishCreated(result);
 
         return BookingMapper.toBookingForResponseMapper(result);
     }
 
+    /**
+     * Создаёт все бронирования пакета или ни одного. Вещи загружаются одним запросом,
+     * пересечения проверяются и с существующими бронированиями, и внутри пакета.
+     */
+    @Transactional
+    @Override
+    public List<BookingDtoResponse> addBookings(long userId, List<BookingDtoRequest> bookingDtoRequests) {
+        checkBatchSize(bookingDtoRequests.size());
+        User user = checkUser(userId);
+        Set<Long> itemIds = bookingDtoRequests.stream()
+                .map(BookingDtoRequest::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        bookingLocks.lock(items.keySet());
+
+        List<Booking> bookings = new ArrayList<>(bookingDtoRequests.size());
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (BookingDtoRequest bookingDtoRequest : bookingDtoRequests) {
+            Item item = items.get(bookingDtoRequest.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с id " + bookingDtoRequest.getItemId() + " не найдена");
+            }
+            if (!item.getAvailable()) {
+                throw new BadRequestException("Вещь не доступна для бронирования");
+            }
+            validateBooking(bookingDtoRequest, item, user);
+            Booking booking = BookingMapper.toBooking(bookingDtoRequest, item, user, now);
+            booking.setStatus(Status.WAITING);
+            bookings.add(booking);
+        }
+        checkBatchOverlaps(bookings);
+
+        List<Booking> result = bookingRepository.saveAll(bookings);
+        result.forEach(bookingIntervalIndex::addAfterCommit);
+        result.forEach(this::publishCreated);
+        return result.stream().map(BookingMapper::toBookingForResponseMapper).toList();
+    }
+
     @Transactional
     @Override
     public BookingDtoResponse updateBooking(long bookingId, long userId, Boolean approved) {
         Booking booking = checkBooking(bookingId);
-        Item item = booking.getItem();
-        if (item.getOwner().getId() != userId) {
-            throw new ValidationException("Пользователь не является владельцем вещи ");
+        checkApprovable(booking, userId);
+        decide(booking, approved);
+        flushDecisions();
+        publishStatusChanged(booking);
+        if (approved) {
+            itemBookingSummaryService.refresh(booking.getItem().getId());
         }
-        if (!booking.getStatus().equals(Status.WAITING)) {
-            throw new BadRequestException("Данное бронирование уже внесено и имеет статус "
-                    + booking.getStatus());
+        return BookingMapper.toBookingForResponseMapper(booking);
+    }
+
+    /**
+     * Подтверждает или отклоняет все бронирования пакета или ни одного; бронирования загружаются одним запросом.
+     */
+    @Transactional
+    @Override
+    public List<BookingDtoResponse> updateBookings(List<Long> bookingIds, long userId, Boolean approved) {
+        Set<Long> ids = bookingIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        checkBatchSize(ids.size());
+        Map<Long, Booking> found = bookingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> bookings = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Booking booking = found.get(id);
+            if (booking == null) {
+                throw new NotFoundException("Бронирование с id " + id + " не зарегистрировано");
+            }
+            checkApprovable(booking, userId);
+            bookings.add(booking);
         }
+        bookings.forEach(booking -> decide(booking, approved));
+        flushDecisions();
+        bookings.forEach(this::publishStatusChanged);
         if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+            bookings.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .sorted()
+                    .forEach(itemBookingSummaryService::refresh);
         }
-        checkUser(userId);
-        return BookingMapper.toBookingForResponseMapper(booking);
+        return bookings.stream().map(BookingMapper::toBookingForResponseMapper).toList();
     }
 
     @Transactional(readOnly = true)
     @Override
     public BookingDtoResponse getBooking(long bookingId, long userId) {
-        checkUser(userId);
-        checkBooking(bookingId);
-        Booking booking = bookingRepository.findById(bookingId).filter(booking1 ->
-                booking1.getBooker().getId() == userId
-                        || booking1.getItem().getOwner().getId() == userId).orElseThrow(() ->
-                new NotFoundException("Пользователь не является владельцем вещи "));
+        checkUserExists(userId);
+        Booking booking = checkBooking(bookingId);
+        if (booking.getBooker().getId() != userId && booking.getItem().getOwner().getId() != userId) {
+            throw new NotFoundException("Пользователь не является владельцем вещи ");
+        }
         return BookingMapper.toBookingForResponseMapper(booking);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<BookingDtoResponse> getAllBookingByUser(String state, long userId) {
-        checkUser(userId);
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> result = new ArrayList<>();
+    public BookingPageDto getAllBookingByUser(String state, long userId, Integer from, Integer size, String cursor) {
+        checkUserExists(userId);
         StateBooking stateBooking = StateBooking.getStateFromText(state);
+        Integer limit = toLimit(size);
+        List<BookingDtoResponse> bookings = bookingQueryMetrics.recordPage(Role.BOOKER, stateBooking, () ->
+                bookingRepository.findBookerBookings(userId, stateBooking, toCursor(cursor), toOffset(from, cursor),
+                        withLookahead(limit)));
+        return toBookingPage(bookings, limit);
+    }
 
-        switch (stateBooking) {
-            case ALL:
-                result = bookingRepository.findByBookerIdOrderByStartDesc(userId);
-                break;
-            case CURRENT:
-                result = bookingRepository.findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(
-                        userId, now, now);
-                break;
-            case PAST:
-                result = bookingRepository.findByBookerIdAndEndBeforeAndStatusOrderByStartDesc(
-                        userId, now, Status.APPROVED);
-                break;
-            case FUTURE:
-                result = bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(userId, now);
-                break;
-            case WAITING:
-                result = bookingRepository.findWaitingBookingsByBooker(userId);
-                break;
-            case REJECTED:
-                result = bookingRepository.findByBookerIdAndStatusIn(
-                        userId, List.of(Status.REJECTED, Status.CANCELED));
-                break;
-        }
-
-        return result.stream()
-                .map(BookingMapper::toBookingForResponseMapper)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @Override
+    public BookingPageDto getAllBookingByOwner(String state, long userId, Integer from, Integer size, String cursor) {
+        checkUserExists(userId);
+        StateBooking stateBooking = StateBooking.getStateFromText(state);
+        Integer limit = toLimit(size);
+        List<BookingDtoResponse> bookings = bookingQueryMetrics.recordPage(Role.OWNER, stateBooking, () ->
+                bookingRepository.findOwnerBookings(userId, stateBooking, toCursor(cursor), toOffset(from, cursor),
+                        withLookahead(limit)));
+        return toBookingPage(bookings, limit);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<BookingDtoResponse> getAllBookingByOwner(String state, long userId) {
-        checkUser(userId);
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> result = new ArrayList<>();
+    public void getAllBookingByOwner(String state, long userId, Consumer<BookingDtoResponse> consumer) {
+        checkUserExists(userId);
         StateBooking stateBooking = StateBooking.getStateFromText(state);
+        bookingQueryMetrics.recordStream(Role.OWNER, stateBooking, () ->
+                bookingRepository.streamOwnerBookings(userId, stateBooking), consumer);
+    }
 
-        switch (stateBooking) {
-            case ALL:
-                result = bookingRepository.findByItemOwnerIdOrderByStartDesc(userId);
-                break;
-            case CURRENT:
-                result = bookingRepository.findByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDesc(
-                        userId, now, now);
-                break;
-            case PAST:
-                result = bookingRepository.findByItemOwnerIdAndEndBeforeAndStatusOrderByStartDesc(
-                        userId, now, Status.APPROVED);
-                break;
-            case FUTURE:
-                result = bookingRepository.findByItemOwnerIdAndStartAfterOrderByStartDesc(userId, now);
-                break;
-            case WAITING:
-                result = bookingRepository.findWaitingBookingsByOwner(userId);
-                break;
-            case REJECTED:
-                result = bookingRepository.findByOwnerAndStatusIn(userId, Status.REJECTED, Status.CANCELED);
-                break;
-        }
-
-        return result.stream().map(BookingMapper::toBookingForResponseMapper)
-                .collect(Collectors.toList());
+    /**
+     * Без транзакции: сводка из кэша не занимает соединение, промах считается одним запросом.
+     */
+    @Override
+    public OwnerBookingStatsDto getOwnerStats(long userId) {
+        checkUserExists(userId);
+        return ownerBookingStats.get(userId);
     }
 
     private User checkUser(long userId) {
@@ -163,20 +233,138 @@ public class BookingServiceImpl implements BookingService {
                         userId + " не зарегистрирован"));
     }
 
+    private void checkUserExists(long userId) {
+        if (!userExistenceIndex.exists(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не зарегистрирован");
+        }
+    }
+
     private Booking checkBooking(long bookingId) {
         return bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование с id " +
                         bookingId + " не зарегистрировано"));
     }
 
+    private void checkApprovable(Booking booking, long userId) {
+        if (booking.getItem().getOwner().getId() != userId) {
+            throw new ValidationException("Пользователь не является владельцем вещи ");
+        }
+        if (!booking.getStatus().equals(Status.WAITING)) {
+            throw new BadRequestException("Данное бронирование уже внесено и имеет статус "
+                    + booking.getStatus());
+        }
+    }
+
+    private void decide(Booking booking, Boolean approved) {
+        if (approved) {
+            booking.setStatus(Status.APPROVED);
+        } else {
+            booking.setStatus(Status.REJECTED);
+            bookingIntervalIndex.removeAfterCommit(booking);
+        }
+    }
+
+    /**
+     * Проверяет версии сразу, а не при коммите: одновременное решение по тому же бронированию даёт 409.
+     */
+    private void flushDecisions() {
+        try {
+            bookingRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Бронирование одновременно изменено другим запросом, повторите запрос");
+        }
+    }
+
+    private void publishCreated(Booking booking) {
+        ownerBookingStats.createdAfterCommit(booking);
+        bookingPhaseScheduler.scheduleAfterCommit(booking);
+        outbox.publish(new BookingCreatedEvent(booking.getId(), booking.getItem().getId(),
+                booking.getItem().getOwner().getId(), booking.getBooker().getId()));
+    }
+
+    private void publishStatusChanged(Booking booking) {
+        ownerBookingStats.decidedAfterCommit(booking);
+        outbox.publish(new BookingStatusChangedEvent(booking.getId(), booking.getItem().getId(),
+                booking.getBooker().getId(), booking.getStatus()));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0) {
+            throw new BadRequestException("Пакет бронирований пуст");
+        }
+        if (size > MAX_BATCH_SIZE) {
+            throw new BadRequestException("В пакете не может быть больше " + MAX_BATCH_SIZE + " бронирований");
+        }
+    }
+
+    private void checkBatchOverlaps(List<Booking> bookings) {
+        Map<Long, List<Booking>> byItem = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (List<Booking> itemBookings : byItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < itemBookings.size(); i++) {
+                if (!itemBookings.get(i).getStart().isAfter(itemBookings.get(i - 1).getEnd())) {
+                    throw new BadRequestException("Найдено пересечение бронирований в пакете на вещь "
+                            + itemBookings.get(i).getItem().getName());
+                }
+            }
+        }
+    }
+
+    private BookingCursor toCursor(String cursor) {
+        return cursor == null ? null : BookingCursor.decode(cursor);
+    }
+
+    private int toOffset(Integer from, String cursor) {
+        if (cursor != null || from == null) {
+            return 0;
+        }
+        if (from < 0) {
+            throw new BadRequestException("Параметр from не может быть отрицательным");
+        }
+        return from;
+    }
+
+    private Integer toLimit(Integer size) {
+        if (size == null) {
+            return null;
+        }
+        if (size <= 0) {
+            throw new BadRequestException("Параметр size должен быть положительным");
+        }
+        return size;
+    }
+
+    private Integer withLookahead(Integer limit) {
+        return limit == null ? null : limit + 1;
+    }
+
+    private BookingPageDto toBookingPage(List<BookingDtoResponse> bookings, Integer limit) {
+        if (limit == null || bookings.size() <= limit) {
+            return new BookingPageDto(bookings, null);
+        }
+        List<BookingDtoResponse> page = bookings.subList(0, limit);
+        return new BookingPageDto(page, BookingCursor.of(page.get(limit - 1)).encode());
+    }
+
     private void validateBooking(BookingDtoRequest bookingDtoRequest, Item item, User booker) {
         if (item.getOwner().getId().equals(booker.getId())) {
             throw new ValidationException("Нельзя забронировать свою вещь");
         }
-        List<Booking> bookings = bookingRepository.findByItemIdAndStartLessThanEqualAndEndGreaterThanEqual(
-                item.getId(), bookingDtoRequest.getStart(), bookingDtoRequest.getStart());
-        if (!bookings.isEmpty()) {
+        LocalDateTime start = bookingDtoRequest.getStart();
+        LocalDateTime end = bookingDtoRequest.getEnd();
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new BadRequestException("Некорректный период бронирования");
+        }
+        if (hasOverlap(item.getId(), start, end)) {
             throw new BadRequestException("Найдено пересечение бронирований на вещь " + item.getName());
         }
     }
-}
\ No newline at end of file
+
+    private boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingLocks.isDatabaseMode()) {
+            return bookingRepository.existsOverlap(itemId, BookingIntervalIndex.ACTIVE_STATUSES, start, end);
+        }
+        return bookingIntervalIndex.hasOverlap(itemId, start, end);
+    }
+}
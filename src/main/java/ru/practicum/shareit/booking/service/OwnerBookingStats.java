@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.StateBooking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.ItemUtilizationDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingStats;
+import ru.practicum.shareit.item.event.ItemUpdatedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Сводка бронирований владельца для GET /bookings/owner/stats. Считается одним групповым запросом и дальше
+ * поддерживается на месте: создание бронирования и решение по нему меняют счётчики после коммита.
+ * Текущие, прошедшие и будущие бронирования зависят от времени, поэтому запись действительна до ближайшего
+ * начала или окончания бронирования владельца и не дольше ttl: загрузка может разминуться с обновлением,
+ * а окно загрузки вещей сдвигается со временем.
+ */
+@Component
+public class OwnerBookingStats {
+    static final String NAME = "ownerBookingStats";
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    private final BookingRepository bookingRepository;
+    private final Duration window;
+    private final Duration ttl;
+    private final Cache<Long, Entry> cache;
+
+    public OwnerBookingStats(BookingRepository bookingRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.booking.stats.cache-size:10000}") long maximumSize,
+                             @Value("${shareit.booking.stats.window:P30D}") Duration window,
+                             @Value("${shareit.booking.stats.ttl:PT10M}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.window = window;
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public OwnerBookingStatsDto get(long ownerId) {
+        Entry entry = cache.get(ownerId, this::load);
+        if (!LocalDateTime.now().isBefore(entry.validUntil())) {
+            cache.asMap().remove(ownerId, entry);
+            entry = cache.get(ownerId, this::load);
+        }
+        return entry.toDto(window);
+    }
+
+    public void createdAfterCommit(Booking booking) {
+        long ownerId = booking.getItem().getOwner().getId();
+        long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        TransactionHooks.afterCommit(() -> cache.asMap().computeIfPresent(ownerId, (id, entry) ->
+                entry.created(itemId, start, LocalDateTime.now())));
+    }
+
+    /**
+     * Решение принимается только по ожидающему бронированию, поэтому прежний статус всегда WAITING.
+     */
+    public void decidedAfterCommit(Booking booking) {
+        long ownerId = booking.getItem().getOwner().getId();
+        long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        Status status = booking.getStatus();
+        TransactionHooks.afterCommit(() -> cache.asMap().computeIfPresent(ownerId, (id, entry) ->
+                entry.decided(itemId, start, status, LocalDateTime.now())));
+    }
+
+    @TransactionalEventListener
+    public void onItemUpdated(ItemUpdatedEvent event) {
+        cache.asMap().values().removeIf(entry -> entry.items().containsKey(event.itemId()));
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private Entry load(long ownerId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime weekEnd = now.plus(WEEK);
+        List<ItemBookingStats> rows = bookingRepository.aggregateOwnerStats(ownerId, now.minus(window), now, weekEnd);
+        Map<StateBooking, Long> states = new EnumMap<>(StateBooking.class);
+        for (StateBooking state : StateBooking.values()) {
+            states.put(state, 0L);
+        }
+        Map<Long, ItemEntry> items = new LinkedHashMap<>();
+        LocalDateTime validUntil = now.plus(ttl);
+        for (ItemBookingStats row : rows) {
+            states.merge(StateBooking.ALL, row.getTotal(), Long::sum);
+            states.merge(StateBooking.CURRENT, row.getCurrent(), Long::sum);
+            states.merge(StateBooking.PAST, row.getPast(), Long::sum);
+            states.merge(StateBooking.FUTURE, row.getFuture(), Long::sum);
+            states.merge(StateBooking.WAITING, row.getWaiting(), Long::sum);
+            states.merge(StateBooking.REJECTED, row.getRejected(), Long::sum);
+            long bookedSeconds = row.getBookedSeconds() == null ? 0 : row.getBookedSeconds();
+            items.put(row.getItemId(), new ItemEntry(row.getItemName(), row.getTotal(), row.getUpcoming(),
+                    bookedSeconds));
+            validUntil = Stream.of(row.getNextStart(), row.getNextEnd(),
+                            row.getNextBeyondWeek() == null ? null : row.getNextBeyondWeek().minus(WEEK))
+                    .filter(Objects::nonNull)
+                    .reduce(validUntil, (left, right) -> left.isBefore(right) ? left : right);
+        }
+        return new Entry(now, weekEnd, validUntil, states, items);
+    }
+
+    private record ItemEntry(String name, long bookings, long upcoming, long bookedSeconds) {
+        ItemEntry withBookings(long bookingsDelta, long upcomingDelta) {
+            return new ItemEntry(name, bookings + bookingsDelta, upcoming + upcomingDelta, bookedSeconds);
+        }
+    }
+
+    private record Entry(LocalDateTime calculated, LocalDateTime weekEnd, LocalDateTime validUntil,
+                         Map<StateBooking, Long> states, Map<Long, ItemEntry> items) {
+        /**
+         * Новое бронирование всегда в будущем и ожидает решения; null сбрасывает запись, если его
+         * нельзя учесть на месте.
+         */
+        Entry created(long itemId, LocalDateTime start, LocalDateTime now) {
+            ItemEntry item = items.get(itemId);
+            if (item == null || !start.isAfter(now)) {
+                return null;
+            }
+            boolean upcoming = !start.isAfter(weekEnd);
+            Map<StateBooking, Long> changedStates = new EnumMap<>(states);
+            changedStates.merge(StateBooking.ALL, 1L, Long::sum);
+            changedStates.merge(StateBooking.FUTURE, 1L, Long::sum);
+            changedStates.merge(StateBooking.WAITING, 1L, Long::sum);
+            Map<Long, ItemEntry> changedItems = new LinkedHashMap<>(items);
+            changedItems.put(itemId, item.withBookings(1, upcoming ? 1 : 0));
+            LocalDateTime boundary = upcoming ? start : start.minus(WEEK);
+            return new Entry(calculated, weekEnd, boundary.isBefore(validUntil) ? boundary : validUntil,
+                    changedStates, changedItems);
+        }
+
+        /**
+         * Решение по уже начавшемуся бронированию меняет прошедшие и занятое время, такая запись сбрасывается.
+         */
+        Entry decided(long itemId, LocalDateTime start, Status status, LocalDateTime now) {
+            ItemEntry item = items.get(itemId);
+            if (item == null || !start.isAfter(now)) {
+                return null;
+            }
+            Map<StateBooking, Long> changedStates = new EnumMap<>(states);
+            changedStates.merge(StateBooking.WAITING, -1L, Long::sum);
+            if (status == Status.APPROVED) {
+                return new Entry(calculated, weekEnd, validUntil, changedStates, items);
+            }
+            changedStates.merge(StateBooking.REJECTED, 1L, Long::sum);
+            Map<Long, ItemEntry> changedItems = new LinkedHashMap<>(items);
+            changedItems.put(itemId, item.withBookings(0, start.isAfter(weekEnd) ? 0 : -1));
+            return new Entry(calculated, weekEnd, validUntil, changedStates, changedItems);
+        }
+
+        OwnerBookingStatsDto toDto(Duration window) {
+            double windowSeconds = window.toSeconds();
+            List<ItemUtilizationDto> utilization = items.entrySet().stream()
+                    .map(item -> new ItemUtilizationDto(item.getKey(), item.getValue().name(),
+                            item.getValue().bookings(), item.getValue().upcoming(),
+                            item.getValue().bookedSeconds() / windowSeconds))
+                    .toList();
+            long upcomingWeek = items.values().stream().mapToLong(ItemEntry::upcoming).sum();
+            return new OwnerBookingStatsDto(calculated, Collections.unmodifiableMap(states), upcomingWeek, utilization);
+        }
+    }
+}
@@ -3,15 +3,27 @@ package ru.practicum.shareit.item;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemForBookingDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.utill.Constants;
+import ru.practicum.shareit.util.JsonStreams;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * TODO Sprint add-controllers.
@@ -23,6 +35,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService service;
+    private final JsonStreams jsonStreams;
+    private final ItemImportService itemImportService;
 
     @PostMapping
     public ItemDto addItem(@RequestHeader(Constants.USER_HEADER) long userId,
@@ -31,6 +45,27 @@ public class ItemController {
         return service.addItem(userId, item);
     }
 
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<ItemImportDto> importItemsCsv(@RequestHeader(Constants.USER_HEADER) long userId,
+                                                        InputStream body) {
+        log.info("POST запрос на импорт вещей из CSV от пользователя ID: {}", userId);
+        return accepted(itemImportService.importItems(userId, ItemImportService.Format.CSV, body));
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ItemImportDto> importItemsNdjson(@RequestHeader(Constants.USER_HEADER) long userId,
+                                                           InputStream body) {
+        log.info("POST запрос на импорт вещей из NDJSON от пользователя ID: {}", userId);
+        return accepted(itemImportService.importItems(userId, ItemImportService.Format.NDJSON, body));
+    }
+
+    @GetMapping("/import/{import-id}")
+    public ItemImportDto getImport(@RequestHeader(Constants.USER_HEADER) long userId,
+                                   @PathVariable("import-id") String importId) {
+        log.info("GET запрос на получение импорта ID: {} от пользователя ID: {}", importId, userId);
+        return itemImportService.getImport(userId, importId);
+    }
+
     @PostMapping("/{item-id}/comment")
     public CommentDtoResponse addComment(@PathVariable("item-id") long itemId,
                                          @RequestHeader(Constants.USER_HEADER) long userId,
@@ -39,6 +74,14 @@ public class ItemController {
         return service.addComment(itemId, userId, commentDtoRequest);
     }
 
+    @GetMapping("/{item-id}/comments")
+    public List<CommentDtoResponse> getComments(@PathVariable("item-id") long itemId,
+                                                @RequestParam(required = false) Integer from,
+                                                @RequestParam(required = false) Integer size) {
+        log.info("GET запрос на получение отзывов о вещи ID: {}", itemId);
+        return service.getComments(itemId, from, size);
+    }
+
     @PatchMapping("/{item-id}")
     public ItemDto updateItem(@RequestHeader(Constants.USER_HEADER) long userId,
                               @PathVariable("item-id") long itemId,
@@ -47,6 +90,22 @@ public class ItemController {
         return service.updateItem(userId, itemId, itemDto);
     }
 
+    @GetMapping("/{item-id}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable("item-id") long itemId,
+                                               @RequestParam(required = false) LocalDateTime from,
+                                               @RequestParam(required = false) LocalDateTime to) {
+        log.info("GET запрос на получение свободных интервалов вещи ID: {} с {} по {}", itemId, from, to);
+        return service.getAvailability(itemId, from, to);
+    }
+
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestParam List<Long> ids,
+                                                     @RequestParam(required = false) LocalDateTime from,
+                                                     @RequestParam(required = false) LocalDateTime to) {
+        log.info("GET запрос на получение свободных интервалов вещей {} с {} по {}", ids, from, to);
+        return service.getAvailability(ids, from, to);
+    }
+
     @GetMapping("/{item-id}")
     public ItemForBookingDto getItem(@RequestHeader(Constants.USER_HEADER) Long userId,
                                      @PathVariable("item-id") Long itemId) {
@@ -55,14 +114,25 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemForBookingDto> getAllItemsUser(@RequestHeader(Constants.USER_HEADER) long userId) {
+    public ResponseEntity<StreamingResponseBody> getAllItemsUser(
+            @RequestHeader(Constants.USER_HEADER) long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("GET запрос на получение всех вещей пользователя ID: {}", userId);
-        return service.getAllItemsUser(userId);
+        return jsonStreams.stream(accept, (Consumer<ItemForBookingDto> consumer) ->
+                service.getAllItemsUser(userId, consumer));
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getSearchOfText(@RequestParam String text) {
+    public List<ItemDto> getSearchOfText(@RequestParam String text,
+                                         @RequestParam(required = false) Integer from,
+                                         @RequestParam(required = false) Integer size) {
         log.info("GET запрос на поиск вещей по тексту: {}", text);
-        return service.getSearchOfText(text);
+        return service.getSearchOfText(text, from, size);
+    }
+
+    private ResponseEntity<ItemImportDto> accepted(ItemImportDto itemImport) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/items/import/" + itemImport.getId()))
+                .body(itemImport);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Свободный интервал вещи. Границы, кроме границ запрошенного периода, заняты соседними бронированиями:
+ * новое бронирование должно начинаться позже start и заканчиваться раньше end.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FreeIntervalDto {
+    LocalDateTime start;
+    LocalDateTime end;
+}
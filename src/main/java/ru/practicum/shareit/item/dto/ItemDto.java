@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
+import java.util.List;
+
 /**
  * TODO Sprint add-controllers.
  */
@@ -23,4 +27,14 @@ public class ItemDto {
     Boolean available;
     Long ownerId;
     Long request;
+    /**
+     * Открытые запросы, на которые может ответить только что добавленная вещь.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    List<Long> suggestedRequests;
+
+    public ItemDto(Long id, String name, String description, Boolean available, Long ownerId, Long request) {
+        this(id, name, description, available, ownerId, request, null);
+    }
 }
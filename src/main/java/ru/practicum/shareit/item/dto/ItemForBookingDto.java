@@ -20,4 +20,5 @@ public class ItemForBookingDto {
     BookingForItemDto lastBooking;
     BookingForItemDto nextBooking;
     final List<CommentDtoResponse> comments;
+    Long commentsCount;
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Состояние задачи импорта вещей. В errors попадают только первые ошибки, их общее число — в failed.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemImportDto {
+    String id;
+    String state;
+    long rowsRead;
+    long imported;
+    long failed;
+    List<ItemImportErrorDto> errors;
+    String message;
+    LocalDateTime started;
+    LocalDateTime finished;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.event;
+
+/**
+ * К вещи добавлен отзыв.
+ */
+public record CommentAddedEvent(long itemId, long commentId) {
+}
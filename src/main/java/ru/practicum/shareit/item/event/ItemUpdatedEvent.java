@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.event;
+
+/**
+ * Владелец изменил название, описание или доступность вещи.
+ */
+public record ItemUpdatedEvent(long itemId) {
+}
@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.LatestComment;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
@@ -29,6 +30,10 @@ public class CommentMapper {
                 .collect(Collectors.toList());
     }
 
+    public CommentDtoResponse toCommentDtoResponse(LatestComment comment) {
+        return new CommentDtoResponse(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated());
+    }
+
     public CommentDtoResponse toCommentDtoResponse(Comment comment) {
         return new CommentDtoResponse(comment.getId(), comment.getText(),
                 comment.getAuthor().getName(), comment.getCreated());
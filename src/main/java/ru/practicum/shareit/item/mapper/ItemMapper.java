@@ -28,13 +28,15 @@ public class ItemMapper {
     }
 
     public static ItemForBookingDto toItemForBookingMapper(Item item, BookingForItemDto lastBooking,
-                                                           BookingForItemDto nextBooking, List<CommentDtoResponse> comments) {
+                                                           BookingForItemDto nextBooking,
+                                                           List<CommentDtoResponse> comments, long commentsCount) {
         return new ItemForBookingDto(item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
                 lastBooking,
                 nextBooking,
-                comments);
+                comments,
+                commentsCount);
     }
 }
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последнее начавшееся и ближайшее будущее подтверждённые бронирования вещи.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+    @Column(name = "last_booking_id")
+    Long lastBookingId;
+    @Column(name = "last_booker_id")
+    Long lastBookerId;
+    @Column(name = "last_start")
+    LocalDateTime lastStart;
+    @Column(name = "last_end")
+    LocalDateTime lastEnd;
+    @Column(name = "next_booking_id")
+    Long nextBookingId;
+    @Column(name = "next_booker_id")
+    Long nextBookerId;
+    @Column(name = "next_start")
+    LocalDateTime nextStart;
+    @Column(name = "next_end")
+    LocalDateTime nextEnd;
+}
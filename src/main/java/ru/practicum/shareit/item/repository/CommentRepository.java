@@ -1,12 +1,45 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemIn(List<Item> items, Sort created);
+    /**
+     * Не больше limit последних отзывов каждой вещи, по вещам и от новых к старым.
+     */
+    @Query("""
+            select r.itemId as itemId, r.id as id, r.text as text, r.authorName as authorName, r.created as created
+            from (select c.item.id as itemId, c.id as id, c.text as text, a.name as authorName, c.created as created,
+                         row_number() over (partition by c.item.id order by c.created desc, c.id desc) as num
+                  from Comment c
+                  join c.author a
+                  where c.item.id in :itemIds) r
+            where r.num <= :limit
+            order by r.itemId, r.created desc, r.id desc
+            """)
+    List<LatestComment> findLatestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("""
+            select c.item.id as itemId, count(c) as count
+            from Comment c
+            where c.item.id in :itemIds
+            group by c.item.id
+            """)
+    List<CommentCount> countByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("""
+            select new ru.practicum.shareit.item.dto.CommentDtoResponse(c.id, c.text, a.name, c.created)
+            from Comment c
+            join c.author a
+            where c.item.id = :itemId
+            order by c.created desc, c.id desc
+            """)
+    List<CommentDtoResponse> findDtosByItemId(@Param("itemId") Long itemId, Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ItemBookingSummary> findWithLockByItemId(Long itemId);
+
+    List<ItemBookingSummary> findByNextStartLessThanEqual(LocalDateTime now);
+}
@@ -1,17 +1,66 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerIdOrderById(Long userId);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select it as item, s as bookings from Item as it " +
+            "left join ItemBookingSummary as s on s.itemId = it.id " +
+            "where it.owner.id = ?1 order by it.id")
+    Stream<ItemWithBookings> streamWithBookingsByOwnerId(Long userId);
+
+    @Query("select it.id from Item as it where it.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "5000"))
+    List<Item> findWithLockByIdInOrderById(Collection<Long> ids);
 
-    @Query("select it " +
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "it.id, it.name, it.description, it.available, it.owner.id, it.request.id) " +
             "from Item as it " +
             "where it.available = true and (upper(it.name) " +
-            "like upper(concat('%', ?1, '%')) or upper(it.description) like upper(concat('%', ?1, '%'))) ")
-    List<Item> findByNameOrDescription(String text);
+            "like upper(concat('%', ?1, '%')) or upper(it.description) like upper(concat('%', ?1, '%'))) " +
+            "order by case when upper(it.name) like upper(concat(?1, '%')) then 0 " +
+            "when upper(it.name) like upper(concat('%', ?1, '%')) then 1 else 2 end, it.id")
+    List<ItemDto> findByNameOrDescription(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "it.id, it.name, it.description, it.available, it.owner.id, it.request.id) " +
+            "from Item as it " +
+            "where it.id in ?1")
+    List<ItemDto> findDtosByIdIn(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "it.id, it.name, it.description, it.available, it.owner.id, it.request.id) " +
+            "from Item as it " +
+            "where it.id in ?1 and it.available = true")
+    List<ItemDto> findAvailableDtosByIdIn(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemAnswerDto(" +
+            "it.id, it.name, it.owner.id, it.request.id) " +
+            "from Item as it " +
+            "where it.request.id in ?1 " +
+            "order by it.id")
+    List<ItemAnswerDto> findAnswersByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select it.id as id, it.name as name, it.description as description " +
+            "from Item as it " +
+            "where it.available = true")
+    List<ItemText> findAvailableTexts();
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemText {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
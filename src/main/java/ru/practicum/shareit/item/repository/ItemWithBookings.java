@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+/**
+ * Вещь вместе со строкой витрины бронирований; строки нет, если подтверждённых бронирований нет.
+ */
+public interface ItemWithBookings {
+    Item getItem();
+
+    ItemBookingSummary getBookings();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+public interface LatestComment {
+    Long getItemId();
+
+    Long getId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,198 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemText;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм по названию и описанию доступных вещей.
+ * Даёт ту же выборку и тот же порядок, что и поиск по подстроке в {@link ItemRepository#findByNameOrDescription},
+ * но без сканирования таблицы: сначала названия, начинающиеся с запроса, затем содержащие его, затем описания.
+ * Изменения после коммита применяются и во время загрузки, поэтому снимок из БД не перезаписывает вещи,
+ * изменённые или удалённые за это время.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Set<Long> changedDuringWarmUp = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    @Value("${shareit.search.index.enabled:true}")
+    private boolean enabled;
+    private volatile boolean warmedUp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        List<ItemText> texts = itemRepository.findAvailableTexts();
+        lock.writeLock().lock();
+        try {
+            texts.stream()
+                    .filter(text -> !changedDuringWarmUp.contains(text.getId()))
+                    .forEach(text -> link(new Document(text.getId(), normalize(text.getName()),
+                            normalize(text.getDescription()))));
+            changedDuringWarmUp.clear();
+            warmedUp = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей загружен: {} вещей, {} триграмм", documents.size(), postings.size());
+    }
+
+    public boolean isReady() {
+        return enabled && warmedUp;
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            return candidates(query).stream()
+                    .map(documents::get)
+                    .filter(document -> document.matches(query))
+                    .sorted(Comparator.comparingInt((Document document) -> document.rank(query))
+                            .thenComparingLong(Document::id))
+                    .skip(from)
+                    .limit(size)
+                    .map(Document::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexAfterCommit(Item item) {
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        TransactionHooks.afterCommit(() -> {
+            if (available) {
+                put(id, name, description);
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (!warmedUp) {
+                changedDuringWarmUp.add(id);
+            }
+            Document document = documents.remove(id);
+            if (document != null) {
+                unlink(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Long id, String name, String description) {
+        Document document = new Document(id, normalize(name), normalize(description));
+        lock.writeLock().lock();
+        try {
+            if (!warmedUp) {
+                changedDuringWarmUp.add(id);
+            }
+            link(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void link(Document document) {
+        Document previous = documents.put(document.id(), document);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    private void unlink(Document document) {
+        for (String gram : document.grams()) {
+            Set<Long> ids = postings.get(gram);
+            ids.remove(document.id());
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return documents.keySet();
+        }
+        Set<Long> smallest = null;
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(Long id, String name, String description) {
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        int rank(String query) {
+            if (name.startsWith(query)) {
+                return 0;
+            }
+            return name.contains(query) ? 1 : 2;
+        }
+    }
+}
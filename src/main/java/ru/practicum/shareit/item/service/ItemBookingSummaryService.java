@@ -0,0 +1,208 @@
+package ru.practicum.shareit.item.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlot;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Витрина последнего и следующего подтверждённых бронирований вещей в таблице item_booking_summary.
+ * Строка пересчитывается при подтверждении бронирования, а когда следующее бронирование начинается,
+ * её сдвигает планировщик. Вещи без подтверждённых бронирований в витрине нет.
+ * Читается витрина всегда из таблицы, поэтому все экземпляры приложения видят одни и те же строки.
+ * При старте таблица строится заново, только если она пуста, а подтверждённые бронирования есть.
+ * Пересчёт строки блокирует строку вещи до конца транзакции, поэтому одновременные пересчёты одной вещи,
+ * в том числе с разных экземпляров, идут по очереди и не вставляют строку дважды.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+    private static final Limit FIRST = Limit.of(1);
+    private static final int BATCH = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private volatile boolean warmedUp;
+
+    /**
+     * Строит пустую витрину; заполненную только сдвигает, если следующие бронирования начались за время простоя.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        boolean missing = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                summaryRepository.count() == 0 && bookingRepository.existsByStatus(Status.APPROVED)));
+        if (missing) {
+            try {
+                Integer built = transactionTemplate.execute(status -> rebuild(LocalDateTime.now()));
+                log.info("Витрина бронирований по вещам построена: {} вещей", built);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Витрину бронирований по вещам одновременно строит другой экземпляр: {}", e.getMessage());
+            }
+        }
+        warmedUp = true;
+        rollForward();
+    }
+
+    /**
+     * Последнее и следующее бронирования вещи; null, если подтверждённых бронирований нет.
+     */
+    public Entry get(long itemId) {
+        return summaryRepository.findById(itemId)
+                .map(summary -> resolve(List.of(summary)).get(itemId))
+                .orElse(null);
+    }
+
+    /**
+     * Последнее и следующее бронирования по строкам витрины, прочитанным вместе с вещами.
+     */
+    public Map<Long, Entry> resolve(Collection<ItemBookingSummary> summaries) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Entry> result = new HashMap<>();
+        for (ItemBookingSummary summary : summaries) {
+            Entry entry = toEntry(summary);
+            // до ближайшего прохода планировщика начавшееся бронирование ещё числится следующим
+            result.put(summary.getItemId(), entry.isStale(now) ? compute(summary.getItemId(), now) : entry);
+        }
+        return result;
+    }
+
+    /**
+     * Пересчитывает строку вещи в текущей транзакции; вещь остаётся заблокированной до её конца, поэтому
+     * несколько вещей пересчитываются в порядке возрастания id.
+     */
+    public void refresh(long itemId) {
+        refresh(itemId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.summary.roll-forward-delay:PT1M}",
+            initialDelayString = "${shareit.summary.roll-forward-delay:PT1M}")
+    public void rollForward() {
+        if (!warmedUp) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Integer rolled = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> started = summaryRepository.findByNextStartLessThanEqual(now).stream()
+                    .map(ItemBookingSummary::getItemId)
+                    .sorted()
+                    .toList();
+            started.forEach(itemId -> refresh(itemId, now));
+            return started.size();
+        });
+        if (rolled != null && rolled > 0) {
+            log.debug("Витрина бронирований сдвинута для {} вещей", rolled);
+        }
+    }
+
+    private void refresh(long itemId, LocalDateTime now) {
+        itemRepository.findWithLockByIdInOrderById(List.of(itemId));
+        ItemBookingSummary summary = summaryRepository.findWithLockByItemId(itemId).orElse(null);
+        Entry entry = compute(itemId, now);
+        if (entry.isEmpty()) {
+            if (summary != null) {
+                summaryRepository.delete(summary);
+            }
+            return;
+        }
+        if (summary == null) {
+            summary = apply(new ItemBookingSummary(), itemId, entry);
+            entityManager.persist(summary);
+        } else {
+            apply(summary, itemId, entry);
+        }
+    }
+
+    private Entry compute(long itemId, LocalDateTime now) {
+        List<BookingSlot> last = bookingRepository.findLastSlots(itemId, Status.APPROVED, now, FIRST);
+        List<BookingSlot> next = bookingRepository.findNextSlots(itemId, Status.APPROVED, now, FIRST);
+        return new Entry(last.isEmpty() ? null : toDto(last.get(0)), next.isEmpty() ? null : toDto(next.get(0)));
+    }
+
+    private int rebuild(LocalDateTime now) {
+        Map<Long, Entry> rebuilt = new HashMap<>();
+        try (Stream<BookingSlot> slots = bookingRepository.streamSlotsByStatus(Status.APPROVED)) {
+            slots.forEach(slot -> {
+                Entry entry = rebuilt.getOrDefault(slot.getItemId(), Entry.EMPTY);
+                if (!slot.getStart().isAfter(now)) {
+                    rebuilt.put(slot.getItemId(), new Entry(toDto(slot), entry.next()));
+                } else if (entry.next() == null) {
+                    rebuilt.put(slot.getItemId(), new Entry(entry.last(), toDto(slot)));
+                }
+            });
+        }
+        int persisted = 0;
+        for (Map.Entry<Long, Entry> entry : rebuilt.entrySet()) {
+            entityManager.persist(apply(new ItemBookingSummary(), entry.getKey(), entry.getValue()));
+            if (++persisted % BATCH == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return rebuilt.size();
+    }
+
+    private static ItemBookingSummary apply(ItemBookingSummary summary, long itemId, Entry entry) {
+        BookingForItemDto last = entry.last();
+        BookingForItemDto next = entry.next();
+        summary.setItemId(itemId);
+        summary.setLastBookingId(last == null ? null : last.getId());
+        summary.setLastBookerId(last == null ? null : last.getBookerId());
+        summary.setLastStart(last == null ? null : last.getStart());
+        summary.setLastEnd(last == null ? null : last.getEnd());
+        summary.setNextBookingId(next == null ? null : next.getId());
+        summary.setNextBookerId(next == null ? null : next.getBookerId());
+        summary.setNextStart(next == null ? null : next.getStart());
+        summary.setNextEnd(next == null ? null : next.getEnd());
+        return summary;
+    }
+
+    private static Entry toEntry(ItemBookingSummary summary) {
+        BookingForItemDto last = summary.getLastBookingId() == null ? null : new BookingForItemDto(
+                summary.getLastBookingId(), summary.getLastBookerId(), summary.getLastStart(), summary.getLastEnd());
+        BookingForItemDto next = summary.getNextBookingId() == null ? null : new BookingForItemDto(
+                summary.getNextBookingId(), summary.getNextBookerId(), summary.getNextStart(), summary.getNextEnd());
+        return new Entry(last, next);
+    }
+
+    private static BookingForItemDto toDto(BookingSlot slot) {
+        return new BookingForItemDto(slot.getId(), slot.getBookerId(), slot.getStart(), slot.getEnd());
+    }
+
+    public record Entry(BookingForItemDto last, BookingForItemDto next) {
+        static final Entry EMPTY = new Entry(null, null);
+
+        boolean isEmpty() {
+            return last == null && next == null;
+        }
+
+        boolean isStale(LocalDateTime now) {
+            return next != null && !next.getStart().isAfter(now);
+        }
+    }
+}
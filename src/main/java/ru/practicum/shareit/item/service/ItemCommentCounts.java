@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Число отзывов по вещам: недостающие значения считаются одним запросом на пачку вещей и кэшируются.
+ * Запись сбрасывается по событию о новом отзыве, весь кэш — по изменению пользователя (удаление уносит
+ * его отзывы). Пакетная загрузка Caffeine может разминуться со сбросом, поэтому записи ещё и устаревают по времени.
+ * Счётчики сбрасываются раньше карточек {@link ItemDetailsCache}: иначе карточка, перезагруженная между
+ * двумя сбросами, взяла бы старое число отзывов и осталась бы в кэше без срока.
+ */
+@Component
+public class ItemCommentCounts {
+    static final String NAME = "itemCommentCounts";
+
+    private final CommentRepository commentRepository;
+    private final Cache<Long, Long> counts;
+
+    public ItemCommentCounts(CommentRepository commentRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.item.comments.count-cache-size:100000}") long maximumSize,
+                             @Value("${shareit.item.comments.count-ttl:PT5M}") Duration ttl) {
+        this.commentRepository = commentRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, NAME);
+    }
+
+    public Map<Long, Long> get(Collection<Long> itemIds) {
+        return counts.getAll(itemIds, this::load);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        counts.invalidate(event.itemId());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        counts.invalidateAll();
+    }
+
+    private Map<Long, Long> load(Set<? extends Long> itemIds) {
+        Set<Long> ids = Set.copyOf(itemIds);
+        Map<Long, Long> loaded = new HashMap<>();
+        ids.forEach(itemId -> loaded.put(itemId, 0L));
+        commentRepository.countByItemIds(ids).forEach(count -> loaded.put(count.getItemId(), count.getCount()));
+        return loaded;
+    }
+}
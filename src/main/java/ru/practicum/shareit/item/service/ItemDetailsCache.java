@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemForBookingDto;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemUpdatedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+
+/**
+ * Кэш собранных карточек вещей для GET /items/{id} без бронирований: их владельцу добавляет сервис вещей,
+ * читая витрину бронирований при каждом запросе. Записи сбрасываются сразу после коммита изменения вещи
+ * или её отзывов.
+ * Загрузка идёт внутри вычисления Caffeine, и сброс того же ключа ждёт её окончания, поэтому
+ * прочитанная до коммита карточка в кэше не остаётся.
+ */
+@Slf4j
+@Component
+public class ItemDetailsCache {
+    static final String NAME = "itemDetails";
+
+    private final Cache<Long, Entry> cache;
+
+    public ItemDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${shareit.item.cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", NAME)
+                .description("Доля обращений к карточкам вещей, обслуженных из кэша")
+                .register(meterRegistry);
+        log.info("Кэш карточек вещей: не больше {} записей", maximumSize);
+    }
+
+    /**
+     * Карточка вещи; отсутствующая запись собирается загрузчиком.
+     * Исключение загрузчика, например {@code NotFoundException}, пробрасывается и не кэшируется.
+     */
+    public Entry get(long itemId, Loader loader) {
+        return cache.get(itemId, loader::load);
+    }
+
+    @TransactionalEventListener
+    public void onItemUpdated(ItemUpdatedEvent event) {
+        evict(event.itemId());
+    }
+
+    @TransactionalEventListener
+    public void onCommentAdded(CommentAddedEvent event) {
+        evict(event.itemId());
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private void evict(long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        Entry load(long itemId);
+    }
+
+    public record Entry(Long ownerId, ItemForBookingDto item) {
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогресс одной задачи импорта. Счётчики обновляются разборщиком и записывающим потоком,
+ * список ошибок ограничен, чтобы память не зависела от размера файла.
+ */
+class ItemImportJob {
+    enum State { RUNNING, COMPLETED, FAILED }
+
+    @Getter
+    private final String id = UUID.randomUUID().toString();
+    @Getter
+    private final long ownerId;
+    private final int maxErrors;
+    private final LocalDateTime started = LocalDateTime.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<ItemImportErrorDto> errors = new ArrayList<>();
+    private volatile State state = State.RUNNING;
+    private volatile String message;
+    private volatile LocalDateTime finished;
+
+    ItemImportJob(long ownerId, int maxErrors) {
+        this.ownerId = ownerId;
+        this.maxErrors = maxErrors;
+    }
+
+    long nextRow() {
+        return rowsRead.incrementAndGet();
+    }
+
+    void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void reject(long row, String error) {
+        reject(row, 1, error);
+    }
+
+    void reject(long row, int count, String error) {
+        failed.addAndGet(count);
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ItemImportErrorDto(row, error));
+            }
+        }
+    }
+
+    /**
+     * Фатальная ошибка: разбор прекращается, уже записанные пакеты остаются.
+     */
+    void abort(String error) {
+        message = error;
+        state = State.FAILED;
+    }
+
+    boolean isAborted() {
+        return state == State.FAILED;
+    }
+
+    void finish() {
+        if (state == State.RUNNING) {
+            state = State.COMPLETED;
+        }
+        finished = LocalDateTime.now();
+    }
+
+    boolean isFinished() {
+        return finished != null;
+    }
+
+    boolean isExpired(LocalDateTime now, Duration retention) {
+        LocalDateTime end = finished;
+        return end != null && end.plus(retention).isBefore(now);
+    }
+
+    ItemImportDto toDto() {
+        List<ItemImportErrorDto> snapshot;
+        synchronized (errors) {
+            snapshot = List.copyOf(errors);
+        }
+        return ItemImportDto.builder()
+                .id(id)
+                .state(finished == null ? State.RUNNING.name() : state.name())
+                .rowsRead(rowsRead.get())
+                .imported(imported.get())
+                .failed(failed.get())
+                .errors(snapshot)
+                .message(message)
+                .started(started)
+                .finished(finished)
+                .build();
+    }
+}
@@ -0,0 +1,374 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PayloadTooLargeException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт вещей из CSV (заголовок name,description,available) или NDJSON.
+ * Запрос только сохраняет тело во временный файл и сразу возвращает задачу; тело больше
+ * {@code shareit.import.max-bytes} отклоняется с 413. Файл разбирается в фоне,
+ * строки проверяются по ограничениям {@link ItemDto} и передаются через ограниченную очередь
+ * записывающему потоку, который сохраняет их пакетами, каждый в своей транзакции.
+ */
+@Slf4j
+@Service
+public class ItemImportService implements DisposableBean {
+    private static final Row END = new Row(0, null);
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserExistenceIndex userExistenceIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Duration retention;
+    private final long maxBytes;
+    private final Map<String, ItemImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService workers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("item-import-", 0).factory());
+
+    public ItemImportService(ItemRepository itemRepository,
+                             UserRepository userRepository,
+                             UserExistenceIndex userExistenceIndex,
+                             ItemSearchIndex itemSearchIndex,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.import.batch-size:500}") int batchSize,
+                             @Value("${shareit.import.max-errors:100}") int maxErrors,
+                             @Value("${shareit.import.retention:PT1H}") Duration retention,
+                             @Value("${shareit.import.max-bytes:52428800}") long maxBytes) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.userExistenceIndex = userExistenceIndex;
+        this.itemSearchIndex = itemSearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(ItemDto.class);
+        this.csvReader = new CsvMapper().readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .with(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+        this.maxBytes = maxBytes;
+    }
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * Сохраняет тело запроса во временный файл и возвращает задачу, не дожидаясь разбора.
+     * Файл удаляется здесь же, если разбор не запущен, иначе после разбора.
+     */
+    public ItemImportDto importItems(long userId, Format format, InputStream body) {
+        if (!userExistenceIndex.exists(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не зарегистрирован");
+        }
+        purgeExpired();
+        ItemImportJob job = new ItemImportJob(userId, maxErrors);
+        jobs.put(job.getId(), job);
+        log.info("Импорт {} для пользователя ID: {} начат", job.getId(), userId);
+
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("item-import-", ".upload");
+            copy(body, upload);
+            Path file = upload;
+            workers.execute(() -> parse(job, format, file));
+            upload = null;
+        } catch (IOException e) {
+            job.abort("Ошибка чтения файла: " + e.getMessage());
+            job.finish();
+        } catch (RejectedExecutionException e) {
+            job.abort("Импорт прерван");
+            job.finish();
+        } catch (PayloadTooLargeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        } finally {
+            deleteUpload(job, upload);
+        }
+        return job.toDto();
+    }
+
+    public ItemImportDto getImport(long userId, String jobId) {
+        ItemImportJob job = jobs.get(jobId);
+        if (job == null || job.getOwnerId() != userId) {
+            throw new NotFoundException("Импорт с id " + jobId + " не найден");
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Копирует тело не больше {@link #maxBytes} байт; при превышении файл остаётся неполным и удаляется вызывающим.
+     */
+    private void copy(InputStream body, Path upload) throws IOException {
+        byte[] buffer = new byte[8192];
+        long copied = 0;
+        try (OutputStream out = Files.newOutputStream(upload)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                copied += read;
+                if (copied > maxBytes) {
+                    throw new PayloadTooLargeException("Файл импорта больше " + maxBytes + " байт");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void parse(ItemImportJob job, Format format, Path upload) {
+        try {
+            BlockingQueue<Row> queue = new ArrayBlockingQueue<>(batchSize * 2);
+            try {
+                workers.execute(() -> write(job, queue));
+            } catch (RejectedExecutionException e) {
+                job.abort("Импорт прерван");
+                job.finish();
+                return;
+            }
+            try (InputStream body = Files.newInputStream(upload)) {
+                if (format == Format.CSV) {
+                    readCsv(job, body, queue);
+                } else {
+                    readNdjson(job, body, queue);
+                }
+            } catch (IOException e) {
+                job.abort("Ошибка чтения файла: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.abort("Импорт прерван");
+            } finally {
+                enqueueEnd(job, queue);
+            }
+        } finally {
+            deleteUpload(job, upload);
+        }
+    }
+
+    private void readCsv(ItemImportJob job, InputStream body, BlockingQueue<Row> queue)
+            throws IOException, InterruptedException {
+        try (MappingIterator<Map<String, String>> rows = csvReader.readValues(body)) {
+            while (!job.isAborted() && rows.hasNextValue()) {
+                Map<String, String> row = rows.nextValue().entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().trim().toLowerCase(Locale.ROOT),
+                                Map.Entry::getValue, (first, second) -> first));
+                long number = job.nextRow();
+                String available = row.get("available");
+                if (available != null && !available.isBlank()
+                        && !"true".equalsIgnoreCase(available.trim()) && !"false".equalsIgnoreCase(available.trim())) {
+                    job.reject(number, "available: значение должно быть true или false");
+                    continue;
+                }
+                ItemDto item = ItemDto.builder()
+                        .name(row.get("name"))
+                        .description(row.get("description"))
+                        .available(available == null || available.isBlank() ? null
+                                : Boolean.valueOf(available.trim()))
+                        .build();
+                accept(job, queue, number, item);
+            }
+        } catch (JsonProcessingException e) {
+            job.abort("Некорректный CSV: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readNdjson(ItemImportJob job, InputStream body, BlockingQueue<Row> queue)
+            throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder();
+        while (!job.isAborted() && readLine(reader, line)) {
+            if (line.toString().isBlank()) {
+                continue;
+            }
+            long number = job.nextRow();
+            if (line.length() > MAX_LINE_LENGTH) {
+                job.reject(number, "Строка длиннее " + MAX_LINE_LENGTH + " символов");
+                continue;
+            }
+            try {
+                accept(job, queue, number, jsonReader.readValue(line.toString()));
+            } catch (JsonProcessingException e) {
+                job.reject(number, "Некорректный JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Читает строку в буфер; символы сверх {@link #MAX_LINE_LENGTH} пропускаются, но длина сохраняет признак.
+     */
+    private static boolean readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int ch = reader.read();
+        if (ch == -1) {
+            return false;
+        }
+        while (ch != -1 && ch != '\n') {
+            if (line.length() <= MAX_LINE_LENGTH && ch != '\r') {
+                line.append((char) ch);
+            }
+            ch = reader.read();
+        }
+        return true;
+    }
+
+    private void accept(ItemImportJob job, BlockingQueue<Row> queue, long number, ItemDto item)
+            throws InterruptedException {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            job.reject(number, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+        put(job, queue, new Row(number, item));
+    }
+
+    /**
+     * Ждёт места в очереди, пока записывающий поток жив; это и есть обратное давление на разбор.
+     */
+    private static void put(ItemImportJob job, BlockingQueue<Row> queue, Row row) throws InterruptedException {
+        while (!queue.offer(row, 1, TimeUnit.SECONDS)) {
+            if (job.isFinished()) {
+                return;
+            }
+        }
+    }
+
+    private void write(ItemImportJob job, BlockingQueue<Row> queue) {
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            Row row;
+            while ((row = queue.take()) != END) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    writeBatch(job, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(job, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.abort("Импорт прерван");
+        } finally {
+            job.finish();
+            log.info("Импорт {} завершён: {}", job.getId(), job.toDto().getState());
+        }
+    }
+
+    private void writeBatch(ItemImportJob job, List<Row> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                User owner = userRepository.getReferenceById(job.getOwnerId());
+                List<Item> items = new ArrayList<>(batch.size());
+                for (Row row : batch) {
+                    Item item = ItemMapper.toItem(row.item());
+                    item.setOwner(owner);
+                    items.add(item);
+                }
+                itemRepository.saveAll(items).forEach(itemSearchIndex::indexAfterCommit);
+            });
+            job.imported(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Импорт {}: пакет со строки {} не записан", job.getId(), batch.get(0).number(), e);
+            job.reject(batch.get(0).number(), batch.size(),
+                    "Пакет из " + batch.size() + " строк не записан: " + e.getMessage());
+        }
+    }
+
+    private static void enqueueEnd(ItemImportJob job, BlockingQueue<Row> queue) {
+        boolean interrupted = Thread.interrupted();
+        while (true) {
+            try {
+                put(job, queue, END);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteUpload(ItemImportJob job, Path upload) {
+        if (upload == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            log.warn("Импорт {}: временный файл {} не удалён", job.getId(), upload, e);
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> job.isExpired(now, retention));
+    }
+
+    private record Row(long number, ItemDto item) {
+    }
+}
@@ -3,10 +3,13 @@ package ru.practicum.shareit.item.service;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemForBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 
@@ -17,9 +20,15 @@ public interface ItemService {
 
     ItemForBookingDto getItemDto(Long ownerId, long itemId);
 
-    List<ItemForBookingDto> getAllItemsUser(long userId);
+    void getAllItemsUser(long userId, Consumer<ItemForBookingDto> consumer);
 
-    List<ItemDto> getSearchOfText(String text);
+    List<ItemDto> getSearchOfText(String text, Integer from, Integer size);
 
     CommentDtoResponse addComment(long itemId, long userId, CommentDtoRequest commentDtoRequest);
+
+    List<CommentDtoResponse> getComments(long itemId, Integer from, Integer size);
+
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to);
 }
@@ -1,55 +1,112 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.Status;
-import ru.practicum.shareit.booking.dto.BookingForItemDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemForBookingDto;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemUpdatedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemWithBookings;
+import ru.practicum.shareit.item.repository.LatestComment;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestIndex;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+import ru.practicum.shareit.util.OffsetLimit;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.DESC;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    // вещи владельца дополняются бронированиями и комментариями порциями, чтобы память не росла с их числом
+    private static final int STREAM_CHUNK = 500;
+    private static final int DEFAULT_COMMENTS_PAGE = 10;
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final UserExistenceIndex userExistenceIndex;
+    private final EntityManager entityManager;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemDetailsCache itemDetailsCache;
+    private final Outbox outbox;
+    private final PlatformTransactionManager transactionManager;
+    private final ItemCommentCounts itemCommentCounts;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestIndex itemRequestIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    @Value("${shareit.item.comments.latest:10}")
+    private int latestComments;
+    @Value("${shareit.item.availability.default-period:P30D}")
+    private Duration defaultAvailabilityPeriod;
+    @Value("${shareit.item.availability.max-period:P366D}")
+    private Duration maxAvailabilityPeriod;
+    @Value("${shareit.item.availability.max-items:100}")
+    private int maxAvailabilityItems;
 
     @Transactional
     @Override
     public ItemDto addItem(long userId, ItemDto itemDto) {
-        User user = checkUser(userId);
+        checkUserExists(userId);
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(user);
+        item.setOwner(userRepository.getReferenceById(userId));
+        if (itemDto.getRequest() != null) {
+            item.setRequest(itemRequestRepository.findById(itemDto.getRequest()).orElseThrow(() ->
+                    new NotFoundException("Запрос с id " + itemDto.getRequest() + " не найден")));
+        }
         Item addItem = itemRepository.save(item);
-        return ItemMapper.toItemDto(addItem);
+        itemSearchIndex.indexAfterCommit(addItem);
+        ItemDto result = ItemMapper.toItemDto(addItem);
+        if (addItem.getRequest() != null) {
+            itemRequestIndex.removeAfterCommit(addItem.getRequest().getId());
+        } else {
+            result.setSuggestedRequests(itemRequestIndex.suggest(userId, addItem.getName(), addItem.getDescription()));
+        }
+        return result;
     }
 
     @Transactional
@@ -69,39 +126,97 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             oldItem.setAvailable(itemDto.getAvailable());
         }
+        try {
+            itemRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Вещь одновременно изменена другим запросом, повторите запрос");
+        }
+        itemSearchIndex.indexAfterCommit(oldItem);
+        outbox.publish(new ItemUpdatedEvent(itemId));
         return ItemMapper.toItemDto(oldItem);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Без транзакции: попадание в кэш не занимает соединение, промах загружается в собственной транзакции.
+     * Бронирования владельцу читаются из витрины при каждом запросе: их мог изменить другой экземпляр.
+     */
     @Override
     public ItemForBookingDto getItemDto(Long ownerId, long itemId) {
-        Item item = checkItem(itemId);
-        return fillWithBookingInfo(List.of(item), ownerId).get(0);
+        ItemDetailsCache.Entry entry = itemDetailsCache.get(itemId, this::loadItemDetails);
+        if (!entry.ownerId().equals(ownerId)) {
+            return entry.item();
+        }
+        ItemBookingSummaryService.Entry bookings = itemBookingSummaryService.get(itemId);
+        if (bookings == null) {
+            return entry.item();
+        }
+        ItemForBookingDto item = entry.item();
+        return new ItemForBookingDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                bookings.last(), bookings.next(), item.getComments(), item.getCommentsCount());
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemForBookingDto> getAllItemsUser(long userId) {
-        checkUser(userId);
-        return fillWithBookingInfo(itemRepository.findAllByOwnerIdOrderById(userId), userId);
+    public void getAllItemsUser(long userId, Consumer<ItemForBookingDto> consumer) {
+        checkUserExists(userId);
+        try (Stream<ItemWithBookings> items = itemRepository.streamWithBookingsByOwnerId(userId)) {
+            Iterator<ItemWithBookings> iterator = items.iterator();
+            List<ItemWithBookings> chunk = new ArrayList<>(STREAM_CHUNK);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK || !iterator.hasNext()) {
+                    Map<Long, ItemBookingSummaryService.Entry> bookings = itemBookingSummaryService.resolve(
+                            chunk.stream().map(ItemWithBookings::getBookings).filter(Objects::nonNull).toList());
+                    fillWithBookingInfo(chunk.stream().map(ItemWithBookings::getItem).toList(), bookings)
+                            .forEach(consumer);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemDto> getSearchOfText(String text) {
+    public List<ItemDto> getSearchOfText(String text, Integer from, Integer size) {
         if (text.isBlank()) {
             return List.of();
         }
-        List<Item> itemList = getSearch(text);
-        return itemList.stream().map(ItemMapper::toItemDto).collect(toList());
+        return getSearch(text, from == null ? 0 : from, size);
     }
 
     @Transactional(readOnly = true)
-    public List<Item> getSearch(String text) {
+    public List<ItemDto> getSearch(String text, int from, Integer size) {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.findByNameOrDescription(text);
+        if (from < 0 || size != null && size <= 0) {
+            throw new BadRequestException("Некорректные параметры страницы: from=" + from + ", size=" + size);
+        }
+        if (!itemSearchIndex.isReady()) {
+            return itemRepository.findByNameOrDescription(text,
+                    new OffsetLimit(from, size == null ? Integer.MAX_VALUE : size));
+        }
+        int limit = size == null ? Integer.MAX_VALUE : size;
+        List<ItemDto> result = new ArrayList<>();
+        // удалённые и ставшие недоступными вещи убираются из индекса, и страница добирается следующими
+        while (result.size() < limit) {
+            List<Long> ids = itemSearchIndex.search(text, from + result.size(), limit - result.size());
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<Long, ItemDto> items = itemRepository.findAvailableDtosByIdIn(ids).stream()
+                    .collect(toMap(ItemDto::getId, Function.identity()));
+            for (Long id : ids) {
+                ItemDto item = items.get(id);
+                if (item == null) {
+                    itemSearchIndex.remove(id);
+                } else {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
     }
 
     @Transactional
@@ -123,7 +238,95 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.toComment(commentDtoRequest, item, user);
         comment.setCreated(LocalDateTime.now());
-        return CommentMapper.toCommentDtoResponse(commentRepository.save(comment));
+        Comment saved = commentRepository.save(comment);
+        outbox.publish(new CommentAddedEvent(itemId, saved.getId()));
+        return CommentMapper.toCommentDtoResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<CommentDtoResponse> getComments(long itemId, Integer from, Integer size) {
+        int offset = from == null ? 0 : from;
+        int limit = size == null ? DEFAULT_COMMENTS_PAGE : size;
+        if (offset < 0 || limit <= 0) {
+            throw new BadRequestException("Некорректные параметры страницы: from=" + from + ", size=" + size);
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id " + itemId + " не зарегистрирована");
+        }
+        return commentRepository.findDtosByItemId(itemId, new OffsetLimit(offset, limit));
+    }
+
+    private ItemDetailsCache.Entry loadItemDetails(long itemId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Item item = checkItem(itemId);
+            return new ItemDetailsCache.Entry(item.getOwner().getId(),
+                    fillWithBookingInfo(List.of(item), Map.of()).get(0));
+        });
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        return getAvailability(List.of(itemId), from, to).get(0);
+    }
+
+    /**
+     * Свободные интервалы считаются по индексу бронирований в памяти; к БД идёт один запрос за доступностью вещей.
+     * Прошедшее время не предлагается: период начинается не раньше текущего момента.
+     */
+    @Override
+    public List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        List<Long> ids = itemIds.stream().distinct().toList();
+        if (ids.isEmpty() || ids.size() > maxAvailabilityItems) {
+            throw new BadRequestException("Число вещей должно быть от 1 до " + maxAvailabilityItems);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(defaultAvailabilityPeriod) : to;
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Конец периода должен быть позже его начала и текущего момента");
+        }
+        if (Duration.between(start, end).compareTo(maxAvailabilityPeriod) > 0) {
+            throw new BadRequestException("Период не может быть длиннее " + maxAvailabilityPeriod.toDays() + " дней");
+        }
+        Map<Long, ItemDto> items = itemRepository.findDtosByIdIn(ids).stream()
+                .collect(toMap(ItemDto::getId, Function.identity()));
+        ids.stream()
+                .filter(id -> !items.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new NotFoundException("Вещь с id " + id + " не зарегистрирована");
+                });
+        List<Long> available = ids.stream().filter(id -> items.get(id).getAvailable()).toList();
+        Map<Long, List<BookingIntervalIndex.Slot>> busy = available.isEmpty()
+                ? Map.of()
+                : bookingIntervalIndex.findBusy(available, start, end);
+        return ids.stream()
+                .map(id -> new ItemAvailabilityDto(id, items.get(id).getAvailable(), start, end,
+                        items.get(id).getAvailable()
+                                ? freeIntervals(busy.getOrDefault(id, List.of()), start, end)
+                                : List.of()))
+                .toList();
+    }
+
+    private static List<FreeIntervalDto> freeIntervals(List<BookingIntervalIndex.Slot> busy,
+                                                       LocalDateTime from, LocalDateTime to) {
+        List<FreeIntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingIntervalIndex.Slot slot : busy) {
+            if (slot.start().isAfter(cursor)) {
+                free.add(new FreeIntervalDto(cursor, slot.start()));
+            }
+            if (slot.end().isAfter(cursor)) {
+                cursor = slot.end();
+            }
+        }
+        if (to.isAfter(cursor)) {
+            free.add(new FreeIntervalDto(cursor, to));
+        }
+        return free;
     }
 
     private Item checkItem(long itemId) {
@@ -138,44 +341,36 @@ public class ItemServiceImpl implements ItemService {
                         userId + " не зарегистрирован"));
     }
 
-    private List<ItemForBookingDto> fillWithBookingInfo(List<Item> items, Long userId) {
-        Map<Item, List<Comment>> comments = commentRepository.findByItemIn(
-                        items, Sort.by(DESC, "created"))
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
-        Map<Item, List<Booking>> bookings = bookingRepository.findByItemInAndStatus(
-                        items, Status.APPROVED, Sort.by(DESC, "start"))
+    private void checkUserExists(long userId) {
+        if (!userExistenceIndex.exists(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не зарегистрирован");
+        }
+    }
+
+    /**
+     * В карточку попадают только последние отзывы и их общее число; остальные отдаёт {@link #getComments}.
+     */
+    private List<ItemForBookingDto> fillWithBookingInfo(List<Item> items,
+                                                        Map<Long, ItemBookingSummaryService.Entry> bookings) {
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        Map<Long, List<CommentDtoResponse>> comments = commentRepository.findLatestByItemIds(itemIds, latestComments)
                 .stream()
-                .collect(groupingBy(Booking::getItem, toList()));
-        LocalDateTime now = LocalDateTime.now();
-        return items.stream().map(item -> addBookingAndComment(item, userId, comments.getOrDefault(item, List.of()),
-                        bookings.getOrDefault(item, List.of()), now))
+                .collect(groupingBy(LatestComment::getItemId, mapping(CommentMapper::toCommentDtoResponse, toList())));
+        Map<Long, Long> commentCounts = itemCommentCounts.get(itemIds);
+        return items.stream().map(item -> addBookingAndComment(item,
+                        comments.getOrDefault(item.getId(), List.of()),
+                        commentCounts.getOrDefault(item.getId(), 0L),
+                        bookings.get(item.getId())))
                 .collect(toList());
     }
 
     private ItemForBookingDto addBookingAndComment(Item item,
-                                                   Long userId,
-                                                   List<Comment> comments,
-                                                   List<Booking> bookings,
-                                                   LocalDateTime now) {
-        if (item.getOwner().getId().longValue() != userId.longValue()) {
-            return ItemMapper.toItemForBookingMapper(item, null, null,
-                    CommentMapper.commentDtoList(comments));
-        }
-        Booking lastBooking = bookings.stream()
-                .filter(b -> !b.getStart().isAfter(now))
-                .findFirst()
-                .orElse(null);
-
-        Booking nextBooking = bookings.stream()
-                .filter(b -> b.getStart().isAfter(now))
-                .reduce((a, b) -> a.getStart().isBefore(b.getStart()) ? a : b)
-                .orElse(null);
-        BookingForItemDto lastBookingDto = lastBooking != null ?
-                BookingMapper.toItemBookingInfoDto(lastBooking) : null;
-        BookingForItemDto nextBookingDto = nextBooking != null ?
-                BookingMapper.toItemBookingInfoDto(nextBooking) : null;
-        return ItemMapper.toItemForBookingMapper(item, lastBookingDto, nextBookingDto,
-                CommentMapper.commentDtoList(comments));
+                                                   List<CommentDtoResponse> comments,
+                                                   long commentsCount,
+                                                   ItemBookingSummaryService.Entry bookings) {
+        if (bookings == null) {
+            return ItemMapper.toItemForBookingMapper(item, null, null, comments, commentsCount);
+        }
+        return ItemMapper.toItemForBookingMapper(item, bookings.last(), bookings.next(), comments, commentsCount);
     }
 }
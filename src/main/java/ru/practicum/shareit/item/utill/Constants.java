@@ -5,4 +5,5 @@ public final class Constants {
     }
 
     public static final String USER_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.event.BookingCreatedEvent;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.event.ItemUpdatedEvent;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Транзакционный outbox: событие сохраняется в той же транзакции, что и изменение, и доставляется
+ * диспетчером {@link OutboxDispatcher} уже после коммита, вне запроса, как {@link OutboxDelivery}.
+ * Доставка «хотя бы один раз», поэтому такие подписчики должны быть идемпотентны; через outbox идут только
+ * побочные эффекты вне процесса. Кэши и индексы процесса получают само событие синхронно после коммита
+ * через {@code @TransactionalEventListener}, чтобы следующий запрос уже видел изменение.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+    static final Map<String, Class<?>> TYPES = List.<Class<?>>of(
+                    BookingCreatedEvent.class,
+                    BookingStatusChangedEvent.class,
+                    ItemUpdatedEvent.class,
+                    CommentAddedEvent.class,
+                    UserChangedEvent.class)
+            .stream()
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Object event) {
+        String type = event.getClass().getSimpleName();
+        if (TYPES.get(type) != event.getClass()) {
+            throw new IllegalArgumentException("Событие " + event.getClass().getName() + " не зарегистрировано");
+        }
+        OutboxEvent row = new OutboxEvent();
+        row.setType(type);
+        row.setPayload(write(event));
+        row.setCreated(LocalDateTime.now());
+        outboxRepository.save(row);
+        eventPublisher.publishEvent(event);
+        TransactionHooks.afterCommit(outboxDispatcher::wakeUp);
+    }
+
+    private String write(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие " + event, e);
+        }
+    }
+}
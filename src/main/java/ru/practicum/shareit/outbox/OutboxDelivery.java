@@ -0,0 +1,15 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Событие, доставленное диспетчером outbox. Его слушают подписчики с побочными эффектами вне процесса,
+ * например {@code @EventListener void on(OutboxDelivery<BookingCreatedEvent> delivery)}.
+ */
+public record OutboxDelivery<T>(T event) implements ResolvableTypeProvider {
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(event));
+    }
+}
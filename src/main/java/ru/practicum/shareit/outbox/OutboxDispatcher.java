@@ -0,0 +1,153 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Доставляет события outbox подписчикам пакетами в отдельном потоке. Запускается сразу после коммита
+ * записавшей транзакции, а планировщик подбирает то, что осталось после сбоев и перезапусков.
+ * Доставленные события удаляются; событие, подписчик которого упал, повторяется не больше max-attempts раз
+ * и затем остаётся в таблице для разбора.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher implements DisposableBean {
+    private final OutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter dispatched;
+    private final Counter failed;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("outbox-dispatcher").daemon().factory());
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                            @Value("${shareit.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.dispatched = Counter.builder("shareit.outbox.dispatched")
+                .description("Доставленные подписчикам события outbox")
+                .register(meterRegistry);
+        this.failed = Counter.builder("shareit.outbox.failed")
+                .description("Неудачные попытки доставки событий outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Планирует разбор очереди; вызовы во время уже запланированного разбора схлопываются в один.
+     */
+    public void wakeUp() {
+        if (pending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                pending.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-delay:PT5S}",
+            initialDelayString = "${shareit.outbox.poll-delay:PT5S}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void drain() {
+        pending.set(false);
+        try {
+            while (dispatchBatch()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Разбор outbox прерван, повтор при следующем опросе: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Доставляет один пакет; true, если за ним могут быть ещё события, готовые к доставке.
+     */
+    private boolean dispatchBatch() {
+        List<OutboxEvent> batch = outboxRepository.findByAttemptsLessThanOrderById(maxAttempts, Limit.of(batchSize));
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<Long> rejected = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            try {
+                eventPublisher.publishEvent(new OutboxDelivery<>(read(event)));
+                delivered.add(event.getId());
+            } catch (RuntimeException e) {
+                rejected.add(event.getId());
+                if (event.getAttempts() + 1 >= maxAttempts) {
+                    log.error("Событие outbox {} {} не доставлено за {} попыток", event.getId(), event.getType(),
+                            maxAttempts, e);
+                } else {
+                    log.warn("Событие outbox {} {} не доставлено: {}", event.getId(), event.getType(),
+                            e.getMessage());
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(delivered);
+            }
+            if (!rejected.isEmpty()) {
+                outboxRepository.incrementAttempts(rejected);
+            }
+        });
+        dispatched.increment(delivered.size());
+        failed.increment(rejected.size());
+        // упавшие события повторяются при следующем опросе, а не сразу
+        return rejected.isEmpty() && batch.size() == batchSize;
+    }
+
+    private Object read(OutboxEvent event) {
+        Class<?> type = Outbox.TYPES.get(event.getType());
+        if (type == null) {
+            throw new IllegalStateException("Неизвестный тип события " + event.getType());
+        }
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Повреждённое событие: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.util.SequenceId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Доменное событие, записанное в одной транзакции с изменением и ещё не доставленное подписчикам.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OutboxEvent {
+    @Id
+    @SequenceId("outbox_events_seq")
+    Long id;
+    @Column(name = "type", nullable = false)
+    String type;
+    @Column(name = "payload", nullable = false)
+    String payload;
+    @Column(name = "created", nullable = false)
+    LocalDateTime created;
+    @Column(name = "attempts", nullable = false)
+    int attempts;
+}
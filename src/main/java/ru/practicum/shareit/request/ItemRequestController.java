@@ -1,13 +1,48 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.utill.Constants;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.request.service.ItemRequestService;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import java.util.List;
 
+@Slf4j
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService service;
+
+    @PostMapping
+    public ItemRequestDtoResponse addRequest(@RequestHeader(Constants.USER_HEADER) long userId,
+                                             @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        log.info("POST запрос на создание запроса вещи от пользователя ID: {}", userId);
+        return service.addRequest(userId, itemRequestDto);
+    }
+
+    @GetMapping
+    public List<ItemRequestDtoResponse> getOwnRequests(@RequestHeader(Constants.USER_HEADER) long userId) {
+        log.info("GET запрос на получение своих запросов вещей от пользователя ID: {}", userId);
+        return service.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDtoResponse> getOtherRequests(@RequestHeader(Constants.USER_HEADER) long userId,
+                                                         @RequestParam(required = false) Integer from,
+                                                         @RequestParam(required = false) Integer size) {
+        log.info("GET запрос на получение запросов других пользователей от пользователя ID: {}", userId);
+        return service.getOtherRequests(userId, from, size);
+    }
+
+    @GetMapping("/{request-id}")
+    public ItemRequestDtoResponse getRequest(@RequestHeader(Constants.USER_HEADER) long userId,
+                                             @PathVariable("request-id") long requestId) {
+        log.info("GET запрос на получение запроса вещи ID: {} от пользователя ID: {}", requestId, userId);
+        return service.getRequest(userId, requestId);
+    }
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@UtilityClass
+public class ItemRequestMapper {
+    public ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requester, LocalDateTime created) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription(itemRequestDto.getDescription());
+        itemRequest.setRequester(requester);
+        itemRequest.setCreated(created);
+        return itemRequest;
+    }
+
+    public ItemRequestDtoResponse toItemRequestDtoResponse(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return new ItemRequestDtoResponse(itemRequest.getId(),
+                itemRequest.getDescription(),
+                itemRequest.getCreated(),
+                items);
+    }
+}
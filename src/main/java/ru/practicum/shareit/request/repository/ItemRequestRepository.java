@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findByRequesterIdOrderByCreatedDescIdDesc(Long requesterId);
+
+    List<ItemRequest> findByRequesterIdNotOrderByCreatedDescIdDesc(Long requesterId, Pageable pageable);
+
+    /**
+     * Запросы, на которые ещё не добавлено ни одной вещи.
+     */
+    @Query("select r.id as id, r.requester.id as requesterId, r.description as description " +
+            "from ItemRequest as r " +
+            "where not exists (select it.id from Item as it where it.request = r)")
+    List<RequestText> findOpenTexts();
+}
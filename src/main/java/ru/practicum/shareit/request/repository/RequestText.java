@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.repository;
+
+public interface RequestText {
+    Long getId();
+
+    Long getRequesterId();
+
+    String getDescription();
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestText;
+import ru.practicum.shareit.user.event.UserChangedEvent;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс слов открытых запросов, то есть запросов без добавленных в ответ вещей.
+ * По названию и описанию новой вещи подбирает запросы с наибольшим числом общих слов без запроса к БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemRequestIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_KEYWORD = 3;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserExistenceIndex userExistenceIndex;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    @Value("${shareit.request.suggestions:5}")
+    private int suggestions;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<RequestText> texts = itemRequestRepository.findOpenTexts();
+        texts.forEach(text -> put(text.getId(), text.getRequesterId(), text.getDescription()));
+        log.info("Индекс открытых запросов загружен: {} запросов, {} слов", documents.size(), postings.size());
+    }
+
+    /**
+     * Открытые запросы других пользователей, подходящие к вещи; сначала с большим числом общих слов,
+     * при равенстве более новые.
+     */
+    public List<Long> suggest(long ownerId, String name, String description) {
+        Set<String> keywords = keywords(name);
+        keywords.addAll(keywords(description));
+        Map<Long, Integer> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String keyword : keywords) {
+                for (Long id : postings.getOrDefault(keyword, Set.of())) {
+                    if (documents.get(id).requesterId() != ownerId) {
+                        scores.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .limit(suggestions)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public void addAfterCommit(long id, long requesterId, String description) {
+        TransactionHooks.afterCommit(() -> put(id, requesterId, description));
+    }
+
+    /**
+     * На запрос ответили вещью, и он больше не предлагается.
+     */
+    public void removeAfterCommit(long id) {
+        TransactionHooks.afterCommit(() -> remove(id));
+    }
+
+    /**
+     * Запросы удалённого пользователя удаляются из БД каскадом, поэтому убираются и из индекса.
+     */
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (userExistenceIndex.exists(event.userId())) {
+            return;
+        }
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = documents.values().stream()
+                    .filter(document -> document.requesterId() == event.userId())
+                    .map(Document::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        ids.forEach(this::remove);
+    }
+
+    private void put(long id, long requesterId, String description) {
+        Document document = new Document(id, requesterId, keywords(description));
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(id, document);
+            if (previous != null) {
+                unlink(previous);
+            }
+            for (String keyword : document.keywords()) {
+                postings.computeIfAbsent(keyword, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.remove(id);
+            if (document != null) {
+                unlink(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(Document document) {
+        for (String keyword : document.keywords()) {
+            Set<Long> ids = postings.get(keyword);
+            ids.remove(document.id());
+            if (ids.isEmpty()) {
+                postings.remove(keyword);
+            }
+        }
+    }
+
+    private static Set<String> keywords(String text) {
+        Set<String> keywords = new HashSet<>();
+        if (text == null) {
+            return keywords;
+        }
+        for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= MIN_KEYWORD) {
+                keywords.add(word);
+            }
+        }
+        return keywords;
+    }
+
+    private record Document(long id, long requesterId, Set<String> keywords) {
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDtoResponse addRequest(long userId, ItemRequestDto itemRequestDto);
+
+    List<ItemRequestDtoResponse> getOwnRequests(long userId);
+
+    List<ItemRequestDtoResponse> getOtherRequests(long userId, Integer from, Integer size);
+
+    ItemRequestDtoResponse getRequest(long userId, long requestId);
+}
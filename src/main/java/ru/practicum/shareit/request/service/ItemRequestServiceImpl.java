@@ -0,0 +1,100 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+import ru.practicum.shareit.util.OffsetLimit;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int DEFAULT_PAGE = 10;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserExistenceIndex userExistenceIndex;
+    private final ItemRequestIndex itemRequestIndex;
+    private final Clock clock;
+
+    @Transactional
+    @Override
+    public ItemRequestDtoResponse addRequest(long userId, ItemRequestDto itemRequestDto) {
+        checkUserExists(userId);
+        ItemRequest itemRequest = itemRequestRepository.save(
+                ItemRequestMapper.toItemRequest(itemRequestDto, userRepository.getReferenceById(userId),
+                        LocalDateTime.now(clock)));
+        itemRequestIndex.addAfterCommit(itemRequest.getId(), userId, itemRequest.getDescription());
+        return ItemRequestMapper.toItemRequestDtoResponse(itemRequest, List.of());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDtoResponse> getOwnRequests(long userId) {
+        checkUserExists(userId);
+        return withAnswers(itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDtoResponse> getOtherRequests(long userId, Integer from, Integer size) {
+        int offset = from == null ? 0 : from;
+        int limit = size == null ? DEFAULT_PAGE : size;
+        if (offset < 0 || limit <= 0) {
+            throw new BadRequestException("Некорректные параметры страницы: from=" + from + ", size=" + size);
+        }
+        checkUserExists(userId);
+        return withAnswers(itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(userId,
+                new OffsetLimit(offset, limit)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemRequestDtoResponse getRequest(long userId, long requestId) {
+        checkUserExists(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new NotFoundException("Запрос с id " + requestId + " не найден"));
+        return withAnswers(List.of(itemRequest)).get(0);
+    }
+
+    /**
+     * Вещи-ответы на всю страницу запросов загружаются одним запросом.
+     */
+    private List<ItemRequestDtoResponse> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository.findAnswersByRequestIdIn(
+                        requests.stream().map(ItemRequest::getId).toList())
+                .stream()
+                .collect(groupingBy(ItemAnswerDto::getRequestId));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDtoResponse(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+
+    private void checkUserExists(long userId) {
+        if (!userExistenceIndex.exists(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не зарегистрирован");
+        }
+    }
+}
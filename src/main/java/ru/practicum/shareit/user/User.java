@@ -3,6 +3,9 @@ package ru.practicum.shareit.user;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.util.SequenceId;
 
 /**
  * TODO Sprint add-controllers.
@@ -11,6 +14,8 @@ import lombok.experimental.FieldDefaults;
 @Builder
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Setter
 @Getter
 @AllArgsConstructor
@@ -18,7 +23,7 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenceId("users_seq")
     Long id;
 
     @Column(nullable = false)
@@ -3,9 +3,13 @@ package ru.practicum.shareit.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.JsonStreams;
 
 /**
  * TODO Sprint add-controllers.
@@ -17,6 +21,14 @@ import ru.practicum.shareit.user.service.UserService;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService service;
+    private final JsonStreams jsonStreams;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("Получил GET запрос на получение всех пользователей");
+        return jsonStreams.stream(accept, service::getAllUsers);
+    }
 
     @GetMapping("/{user-id}")
     public UserDto getUser(@PathVariable("user-id") long userId) {
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.event;
+
+/**
+ * Пользователь переименован или удалён; вместе с ним меняются имена авторов отзывов,
+ * а при удалении каскадом пропадают его вещи, отзывы и бронирования.
+ */
+public record UserChangedEvent(long userId) {
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битовая карта id существующих пользователей: проверка существования без запроса к БД.
+ * До загрузки, для id вне диапазона int и при промахе проверка идёт через репозиторий: пользователь мог быть
+ * создан другим экземпляром приложения или в обход сервиса, найденный id вносится в карту.
+ * Запросы обслуживаются и во время загрузки, поэтому снимок из БД объединяется с уже внесёнными id,
+ * а пользователи, удалённые за это время, из снимка не восстанавливаются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserExistenceIndex {
+    private final UserRepository userRepository;
+    private final BitSet ids = new BitSet();
+    private final Set<Long> removedDuringWarmUp = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean warmedUp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Long> userIds = userRepository.findAllIds();
+        lock.writeLock().lock();
+        try {
+            userIds.stream()
+                    .filter(id -> fits(id) && !removedDuringWarmUp.contains(id))
+                    .forEach(id -> ids.set(id.intValue()));
+            removedDuringWarmUp.clear();
+            warmedUp = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс пользователей загружен: {} пользователей", userIds.size());
+    }
+
+    public boolean exists(long id) {
+        if (id <= 0) {
+            return false;
+        }
+        if (!warmedUp || !fits(id)) {
+            return userRepository.existsById(id);
+        }
+        lock.readLock().lock();
+        try {
+            if (ids.get((int) id)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!userRepository.existsById(id)) {
+            return false;
+        }
+        set(id, true);
+        return true;
+    }
+
+    public void addAfterCommit(long id) {
+        TransactionHooks.afterCommit(() -> set(id, true));
+    }
+
+    public void removeAfterCommit(long id) {
+        TransactionHooks.afterCommit(() -> set(id, false));
+    }
+
+    private void set(long id, boolean value) {
+        if (!fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!value && !warmedUp) {
+                removedDuringWarmUp.add(id);
+            }
+            ids.set((int) id, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean fits(long id) {
+        return id > 0 && id < Integer.MAX_VALUE;
+    }
+}
@@ -3,11 +3,11 @@ package ru.practicum.shareit.user.service;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.user.dto.UserDto;
 
-import java.util.Collection;
+import java.util.function.Consumer;
 
 @Service
 public interface UserService {
-    Collection<UserDto> getAllUsers();
+    void getAllUsers(Consumer<UserDto> consumer);
 
     UserDto getUser(long id);
 
@@ -1,16 +1,30 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlot;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.outbox.Outbox;
+import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.event.UserChangedEvent;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionHooks;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -18,12 +32,20 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserExistenceIndex userExistenceIndex;
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemRepository itemRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final Outbox outbox;
 
     @Override
     @Transactional(readOnly = true)
-    public Collection<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(UserMapper::toUserDto).collect(Collectors.toList());
+    public void getAllUsers(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -40,6 +62,7 @@ public class UserServiceImpl implements UserService {
     public UserDto createUser(UserDto userDto) {
         User user = UserMapper.toUser(userDto);
         User saveUser = userRepository.save(user);
+        userExistenceIndex.addAfterCommit(saveUser.getId());
         return UserMapper.toUserDto(saveUser);
     }
 
@@ -51,6 +74,7 @@ public class UserServiceImpl implements UserService {
                         id + " не найден"));
         if (userDto.getName() != null && !userDto.getName().isBlank()) {
             oldUser.setName(userDto.getName());
+            outbox.publish(new UserChangedEvent(id));
         }
         if (userDto.getEmail() != null && !userDto.getEmail().isEmpty()) {
             oldUser.setEmail(userDto.getEmail());
@@ -61,7 +85,21 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void deleteUser(long id) {
+        List<Long> bookedItemIds = bookingRepository.findItemIdsByBookerId(id);
+        List<BookingSlot> bookedSlots = bookingRepository.findSlotsByBookerId(id, LocalDateTime.now());
+        List<Long> ownedItemIds = itemRepository.findIdsByOwnerId(id);
         userRepository.deleteById(id);
+        userRepository.flush();
+        bookedItemIds.stream().sorted().forEach(itemBookingSummaryService::refresh);
+        userExistenceIndex.removeAfterCommit(id);
+        bookingIntervalIndex.removeUserAfterCommit(bookedSlots, ownedItemIds);
+        outbox.publish(new UserChangedEvent(id));
+        // вещи и запросы пользователя удаляются каскадом в БД, мимо кэша второго уровня
+        TransactionHooks.afterCommit(() -> {
+            Cache cache = entityManagerFactory.getCache();
+            cache.evict(Item.class);
+            cache.evict(ItemRequest.class);
+        });
     }
 }
 
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов размером пула соединений.
+ * Нужен только на виртуальных потоках: пул Tomcat больше не сдерживает нагрузку, и без фильтра
+ * тысячи виртуальных потоков ждали бы соединение внутри Hikari до его connection-timeout.
+ * Разрешение держится до конца асинхронной обработки, чтобы потоковые ответы тоже учитывались.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionAdmissionFilter extends OncePerRequestFilter {
+    // Hikari подставляет это значение при старте пула, если maximum-pool-size не задан
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejected;
+
+    public ConnectionAdmissionFilter(DataSource dataSource,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${shareit.admission.permits:0}") int permits,
+                                     @Value("${shareit.admission.timeout:PT5S}") Duration timeout) {
+        int size = permits > 0 ? permits : poolSize(dataSource);
+        this.permits = new Semaphore(size, true);
+        this.timeout = timeout;
+        this.rejected = Counter.builder("shareit.admission.rejected")
+                .description("Запросы, не дождавшиеся свободного соединения")
+                .register(meterRegistry);
+        Gauge.builder("shareit.admission.waiting", waiting, AtomicInteger::get)
+                .description("Запросы в очереди на соединение")
+                .register(meterRegistry);
+        log.info("Ограничение одновременных запросов к БД: {}, ожидание не дольше {}", size, timeout);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Сервер перегружен, повторите запрос позже");
+            return;
+        }
+        Release release = new Release();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private boolean acquire() {
+        waiting.incrementAndGet();
+        try {
+            return permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return size > 0 ? size : HIKARI_DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось определить размер пула соединений: {}", e.getMessage());
+        }
+        throw new IllegalStateException("Размер пула соединений неизвестен, задайте shareit.admission.permits");
+    }
+
+    /**
+     * Возвращает разрешение ровно один раз, в том числе при ошибке или таймауте асинхронного ответа.
+     */
+    private class Release implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
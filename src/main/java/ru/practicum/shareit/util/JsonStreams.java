@@ -0,0 +1,89 @@
+package ru.practicum.shareit.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая запись списков в ответ: JSON-массив или NDJSON, если его запросили в Accept.
+ * Элементы пишутся по мере получения, поэтому память не зависит от размера выдачи.
+ * Запись начинается с первого элемента: исключение до него (например, NotFoundException) обрабатывается как обычно.
+ * Ответ пишется асинхронно, время на всю выгрузку задаёт spring.mvc.async.request-timeout.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonStreams {
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, Consumer<Consumer<T>> producer) {
+        return stream(accept, HttpHeaders.EMPTY, producer);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, HttpHeaders headers,
+                                                            Consumer<Consumer<T>> producer) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_NDJSON) && !type.isWildcardType());
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        RequestStatements statements = RequestStatements.current();
+        StreamingResponseBody body = out -> {
+            LazySequence sequence = new LazySequence(writer, out, ndjson);
+            try (RequestStatements.Scope scope = RequestStatements.bind(statements)) {
+                producer.accept(sequence::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            sequence.close();
+        };
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @RequiredArgsConstructor
+    private static class LazySequence {
+        private final ObjectWriter writer;
+        private final OutputStream out;
+        private final boolean ndjson;
+        private SequenceWriter sequence;
+
+        void write(Object value) {
+            try {
+                if (sequence == null) {
+                    sequence = ndjson
+                            ? writer.withRootValueSeparator("\n").writeValues(out)
+                            : writer.writeValuesAsArray(out);
+                }
+                sequence.write(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            if (sequence != null) {
+                sequence.close();
+                if (ndjson) {
+                    out.write('\n');
+                }
+            } else if (!ndjson) {
+                out.write(new byte[]{'[', ']'});
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Pageable с произвольным смещением: {@code PageRequest} умеет только смещения, кратные размеру страницы,
+ * а API принимает {@code from} как номер первой строки. Spring Data передаёт смещение в setFirstResult.
+ */
+public record OffsetLimit(long offset, int limit) implements Pageable {
+    public OffsetLimit {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Некорректные смещение " + offset + " и размер " + limit);
+        }
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetLimit(offset + limit, limit);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetLimit(Math.max(offset - limit, 0), limit) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetLimit(0, limit);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetLimit((long) pageNumber * limit, limit);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
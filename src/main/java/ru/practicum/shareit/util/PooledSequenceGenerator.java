@@ -0,0 +1,44 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Генератор для {@link SequenceId}: последовательность с шагом {@value #ALLOCATION_SIZE} и оптимизатором
+ * {@value #OPTIMIZER}, которые задаются в настройках Hibernate (spring.jpa.properties.*).
+ * Hibernate сам создаёт последовательности с этим шагом, поэтому в schema.sql они только удаляются.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "shareit.id.allocation-size";
+    public static final String OPTIMIZER = "shareit.id.optimizer";
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+    private static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(SequenceId config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE, settings, DEFAULT_ALLOCATION_SIZE);
+        if (allocationSize < 1) {
+            throw new MappingException("Шаг последовательности " + sequenceName + " должен быть положительным");
+        }
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM,
+                ConfigurationHelper.getString(OPTIMIZER, settings, DEFAULT_OPTIMIZER));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики каждого метода репозитория: сколько SQL-запросов он выполнил, сколько времени они заняли в JDBC
+ * и сколько строк вернул. Общее время вызова пишет сам Spring Boot в {@code spring.data.repository.invocations}.
+ * Запросы считает {@link SqlStatementListener}.
+ */
+@Component
+public class RepositoryMetrics implements BeanPostProcessor {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(
+                            new Interceptor(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private Meters meters(String repository, Method method) {
+        return meters.computeIfAbsent(method, key -> new Meters(meterRegistry.getObject(),
+                Tags.of("repository", repository, "method", method.getName())));
+    }
+
+    private final class Interceptor implements MethodInterceptor {
+        private final String repository;
+
+        private Interceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            SqlStatementListener.Snapshot before = SqlStatementListener.snapshot();
+            Object result = null;
+            try {
+                result = invocation.proceed();
+                return result;
+            } finally {
+                SqlStatementListener.Snapshot sql = SqlStatementListener.snapshot().minus(before);
+                meters(repository, invocation.getMethod()).record(sql, result);
+            }
+        }
+    }
+
+    private static final class Meters {
+        private final DistributionSummary statements;
+        private final Timer sql;
+        private final DistributionSummary rows;
+
+        private Meters(MeterRegistry registry, Tags tags) {
+            this.statements = DistributionSummary.builder("shareit.repository.statements")
+                    .description("SQL-запросы за один вызов метода репозитория")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(100.0)
+                    .register(registry);
+            this.sql = Timer.builder("shareit.repository.sql")
+                    .description("Время выполнения SQL в JDBC за один вызов метода репозитория")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rows = DistributionSummary.builder("shareit.repository.rows")
+                    .description("Число строк, возвращённых методом репозитория")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(10_000.0)
+                    .register(registry);
+        }
+
+        private void record(SqlStatementListener.Snapshot sql, Object result) {
+            statements.record(sql.statements());
+            this.sql.record(sql.nanos(), TimeUnit.NANOSECONDS);
+            if (result instanceof Collection<?> collection) {
+                rows.record(collection.size());
+            } else if (result instanceof Slice<?> slice) {
+                rows.record(slice.getNumberOfElements());
+            }
+        }
+    }
+}
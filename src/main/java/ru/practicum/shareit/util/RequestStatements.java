@@ -0,0 +1,83 @@
+package ru.practicum.shareit.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL одного HTTP-запроса: число запросов, время в JDBC и сколько раз выполнялся каждый текст запроса.
+ * Учитываются участки, выполненные внутри {@link #bind}; потоковый ответ привязывает ту же сводку
+ * в своём потоке, поэтому его SQL тоже попадает в запрос.
+ */
+public final class RequestStatements {
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+    private static final Scope NOTHING = () -> {
+    };
+
+    private final Map<String, Integer> signatures = new HashMap<>();
+    private long statements;
+    private long nanos;
+
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Учитывает SQL текущего потока в сводке до закрытия участка; без сводки ничего не делает.
+     */
+    public static Scope bind(RequestStatements requestStatements) {
+        if (requestStatements == null) {
+            return NOTHING;
+        }
+        RequestStatements previous = CURRENT.get();
+        SqlStatementListener.Snapshot before = SqlStatementListener.snapshot();
+        CURRENT.set(requestStatements);
+        return () -> {
+            requestStatements.add(SqlStatementListener.snapshot().minus(before));
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void record(String sql) {
+        RequestStatements requestStatements = CURRENT.get();
+        if (requestStatements != null) {
+            requestStatements.count(sql);
+        }
+    }
+
+    public synchronized long statements() {
+        return statements;
+    }
+
+    public synchronized long nanos() {
+        return nanos;
+    }
+
+    /**
+     * Чаще всего повторявшийся текст запроса; при N+1 это запрос, выполненный для каждой строки.
+     */
+    public synchronized Map.Entry<String, Integer> mostRepeated() {
+        return signatures.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .orElse(null);
+    }
+
+    private synchronized void count(String sql) {
+        signatures.merge(sql, 1, Integer::sum);
+    }
+
+    private synchronized void add(SqlStatementListener.Snapshot spent) {
+        statements += spent.statements();
+        nanos += spent.nanos();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
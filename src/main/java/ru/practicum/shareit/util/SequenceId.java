@@ -0,0 +1,21 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Идентификатор из последовательности БД, выдаваемый блоками по {@value PooledSequenceGenerator#ALLOCATION_SIZE}.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SequenceId {
+    /**
+     * Имя последовательности.
+     */
+    String value();
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Считает подготовленные SQL-запросы и время их выполнения в текущем потоке. Подключается ко всем сессиям
+ * через {@code hibernate.session.events.auto}; счётчики накопительные, нужный участок измеряется
+ * разностью двух {@link #snapshot()}.
+ */
+public class SqlStatementListener implements SessionEventListener {
+    private static final ThreadLocal<Counters> COUNTERS = ThreadLocal.withInitial(Counters::new);
+
+    private long executeStart;
+    private long batchStart;
+
+    public static Snapshot snapshot() {
+        Counters counters = COUNTERS.get();
+        return new Snapshot(counters.statements, counters.nanos);
+    }
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        COUNTERS.get().statements++;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        COUNTERS.get().nanos += System.nanoTime() - executeStart;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        COUNTERS.get().nanos += System.nanoTime() - batchStart;
+    }
+
+    public record Snapshot(long statements, long nanos) {
+        public Snapshot minus(Snapshot before) {
+            return new Snapshot(statements - before.statements, nanos - before.nanos);
+        }
+    }
+
+    private static final class Counters {
+        private long statements;
+        private long nanos;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бюджет SQL на HTTP-запрос: число запросов, время в JDBC и повторы одного текста запроса (признак N+1).
+ * Превышение пишется в лог с эндпоинтом и самым частым запросом и считается в
+ * {@code shareit.sql.budget.violations}; с {@code shareit.sql.budget.fail=true} запрос завершается
+ * исключением, чтобы интеграционные тесты падали. Потоковые ответы проверяются на асинхронной
+ * диспетчеризации, когда весь их SQL уже выполнен.
+ */
+@Slf4j
+@Component
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    private static final String ATTRIBUTE = RequestStatements.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final long maxStatements;
+    private final Duration maxTime;
+    private final int maxRepeats;
+    private final boolean fail;
+
+    public StatementBudgetFilter(MeterRegistry meterRegistry,
+                                 @Value("${shareit.sql.budget.max-statements:20}") long maxStatements,
+                                 @Value("${shareit.sql.budget.max-time:PT1S}") Duration maxTime,
+                                 @Value("${shareit.sql.budget.max-repeats:5}") int maxRepeats,
+                                 @Value("${shareit.sql.budget.fail:false}") boolean fail) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxTime = maxTime;
+        this.maxRepeats = maxRepeats;
+        this.fail = fail;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatements statements = (RequestStatements) request.getAttribute(ATTRIBUTE);
+        if (statements == null) {
+            statements = new RequestStatements();
+            request.setAttribute(ATTRIBUTE, statements);
+        }
+        try (RequestStatements.Scope scope = RequestStatements.bind(statements)) {
+            chain.doFilter(request, response);
+        }
+        if (!request.isAsyncStarted()) {
+            check(request, statements);
+        }
+    }
+
+    private void check(HttpServletRequest request, RequestStatements statements) {
+        Map.Entry<String, Integer> repeated = statements.mostRepeated();
+        List<String> exceeded = new ArrayList<>();
+        if (statements.statements() > maxStatements) {
+            exceeded.add(statements.statements() + " запросов при лимите " + maxStatements);
+        }
+        if (statements.nanos() > maxTime.toNanos()) {
+            exceeded.add(TimeUnit.NANOSECONDS.toMillis(statements.nanos()) + " мс в БД при лимите "
+                    + maxTime.toMillis());
+        }
+        if (repeated != null && repeated.getValue() > maxRepeats) {
+            exceeded.add("один запрос повторён " + repeated.getValue() + " раз при лимите " + maxRepeats);
+        }
+        if (exceeded.isEmpty()) {
+            return;
+        }
+        String endpoint = request.getMethod() + " "
+                + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Counter.builder("shareit.sql.budget.violations")
+                .description("HTTP-запросы, превысившие бюджет SQL")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+        String message = "Превышен бюджет SQL в " + endpoint + ": " + String.join(", ", exceeded)
+                + (repeated == null ? "" : "; чаще всего (" + repeated.getValue() + " раз): "
+                + repeated.getKey().replaceAll("\\s+", " "));
+        if (fail) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+}
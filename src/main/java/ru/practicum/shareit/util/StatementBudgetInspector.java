@@ -0,0 +1,14 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Передаёт текст каждого SQL-запроса в сводку текущего HTTP-запроса, не изменяя его.
+ */
+public class StatementBudgetInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        RequestStatements.record(sql);
+        return sql;
+    }
+}
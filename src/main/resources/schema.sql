@@ -1,7 +1,14 @@
-DROP TABLE IF EXISTS users, requests, items, bookings, comments;
+DROP TABLE IF EXISTS users, requests, items, bookings, comments, item_booking_summary, outbox_events;
+-- последовательности id создаёт Hibernate с шагом shareit.id.allocation-size
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+DROP SEQUENCE IF EXISTS outbox_events_seq;
 
 CREATE TABLE IF NOT EXISTS users (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+id BIGINT NOT NULL,
 name VARCHAR(255) NOT NULL,
 email VARCHAR(255) NOT NULL,
 CONSTRAINT pk_user PRIMARY KEY (id),
@@ -9,7 +16,7 @@ CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+id BIGINT NOT NULL,
 description VARCHAR(512) NOT NULL,
 requester_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
 created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -17,30 +24,71 @@ CONSTRAINT pk_requests PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS items (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+id BIGINT NOT NULL,
 name VARCHAR(255) NOT NULL,
 description VARCHAR(512) NOT NULL,
 is_available BOOLEAN NOT NULL,
 owner_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
 request_id BIGINT REFERENCES requests (id) ON DELETE CASCADE,
+version BIGINT NOT NULL DEFAULT 0,
 CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+id BIGINT NOT NULL,
 start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
 booker_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
 status varchar(150),
+phase VARCHAR(16),
+version BIGINT NOT NULL DEFAULT 0,
 CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+id BIGINT NOT NULL,
 text VARCHAR(512) NOT NULL,
 item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
 author_id  BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
 created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+last_booking_id BIGINT,
+last_booker_id BIGINT,
+last_start TIMESTAMP WITHOUT TIME ZONE,
+last_end TIMESTAMP WITHOUT TIME ZONE,
+next_booking_id BIGINT,
+next_booker_id BIGINT,
+next_start TIMESTAMP WITHOUT TIME ZONE,
+next_end TIMESTAMP WITHOUT TIME ZONE,
+CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+id BIGINT NOT NULL,
+type VARCHAR(100) NOT NULL,
+payload VARCHAR(4000) NOT NULL,
+created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+attempts INTEGER NOT NULL DEFAULT 0,
+CONSTRAINT pk_outbox_events PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status ON bookings (booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end_status ON bookings (end_date, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase ON bookings (booker_id, phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase ON bookings (item_id, phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_start ON bookings (phase, start_date);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+CREATE INDEX IF NOT EXISTS idx_requests_requester ON requests (requester_id, created);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_next ON item_booking_summary (next_start);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_attempts ON outbox_events (attempts, id);
@@ -0,0 +1,202 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочная проверка конкурентного бронирования: много потоков одновременно бронируют одни и те же вещи
+ * на пересекающиеся интервалы, одиночными запросами и пакетами с разным порядком вещей.
+ * Пересекающихся активных бронирований быть не должно, решение по бронированию применяется один раз.
+ * Пропускная способность под конкуренцией пишется в лог.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+        "logging.level.org.springframework.transaction.interceptor=OFF",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=OFF"})
+class BookingConcurrencyTests {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+    private static final int SLOTS = 40;
+    private static final int DECIDERS = 8;
+    private static final AtomicLong EMAILS = new AtomicLong();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        long owner = createUser();
+        long first = createItem(owner);
+        long second = createItem(owner);
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(createUser());
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        long elapsed = race(THREADS, thread -> {
+            Random random = new Random(thread);
+            long booker = bookers.get(thread);
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                // двухчасовые бронирования на часовой сетке пересекаются с соседями
+                LocalDateTime start = base.plusHours(random.nextInt(SLOTS));
+                LocalDateTime end = start.plusHours(2);
+                try {
+                    if (random.nextBoolean()) {
+                        bookingService.addBooking(booker, new BookingDtoRequest(start, end, first));
+                        created.incrementAndGet();
+                    } else {
+                        boolean forward = random.nextBoolean();
+                        bookingService.addBookings(booker, List.of(
+                                new BookingDtoRequest(start, end, forward ? first : second),
+                                new BookingDtoRequest(start, end, forward ? second : first)));
+                        created.addAndGet(2);
+                    }
+                } catch (BadRequestException e) {
+                    overlaps.incrementAndGet();
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("Бронирований создано {}, отклонено из-за пересечения {}, по таймауту блокировки {}; "
+                        + "{} попыток за {} мс, {} попыток/с",
+                created.get(), overlaps.get(), conflicts.get(), attempts, elapsed,
+                attempts * 1000L / Math.max(elapsed, 1));
+        List<Booking> firstBookings = bookingRepository.findByItemId(first);
+        List<Booking> secondBookings = bookingRepository.findByItemId(second);
+        assertEquals(created.get(), firstBookings.size() + secondBookings.size());
+        assertTrue(created.get() > 0, "Ни одно бронирование не создано");
+        assertNoOverlaps(firstBookings);
+        assertNoOverlaps(secondBookings);
+    }
+
+    @Test
+    void concurrentDecisionsApplyOnce() throws Exception {
+        long owner = createUser();
+        long booker = createUser();
+        long item = createItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addBooking(booker, new BookingDtoRequest(start, start.plusHours(1), item))
+                .getId();
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger alreadyDecided = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        race(DECIDERS, thread -> {
+            try {
+                bookingService.updateBooking(bookingId, owner, thread % 2 == 0);
+                applied.incrementAndGet();
+            } catch (BadRequestException e) {
+                alreadyDecided.incrementAndGet();
+            } catch (ConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        log.info("Решений применено {}, отклонено как повторные {}, по конфликту версий {}",
+                applied.get(), alreadyDecided.get(), conflicts.get());
+        assertEquals(1, applied.get());
+        assertEquals(DECIDERS - 1, alreadyDecided.get() + conflicts.get());
+        Status status = bookingRepository.findById(bookingId).orElseThrow().getStatus();
+        assertTrue(status == Status.APPROVED || status == Status.REJECTED, "Статус не изменён: " + status);
+    }
+
+    /**
+     * Запускает потоки одновременно и ждёт их завершения; возвращает время гонки в миллисекундах.
+     */
+    private static long race(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                int number = thread;
+                Callable<Void> call = () -> {
+                    start.await();
+                    task.run(number);
+                    return null;
+                };
+                futures.add(executor.submit(call));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertNoOverlaps(List<Booking> bookings) {
+        List<Booking> sorted = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStart))
+                .toList();
+        for (int i = 1; i < sorted.size(); i++) {
+            Booking previous = sorted.get(i - 1);
+            Booking next = sorted.get(i);
+            assertTrue(next.getStart().isAfter(previous.getEnd()),
+                    () -> "Пересекаются бронирования " + previous.getId() + " и " + next.getId());
+        }
+    }
+
+    private long createUser() {
+        long number = EMAILS.incrementAndGet();
+        return userService.createUser(new UserDto(null, "user" + number, "race" + number + "@mail.ru")).getId();
+    }
+
+    private long createItem(long owner) {
+        return itemService.addItem(owner, new ItemDto(null, "Дрель", "Ударная дрель", true, null, null)).getId();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
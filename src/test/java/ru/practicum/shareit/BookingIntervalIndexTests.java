@@ -0,0 +1,90 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlot;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Индекс интервалов находит пересечения и занятые интервалы, даже если загруженные из БД бронирования
+ * пересекаются между собой, и вычищает закончившиеся интервалы.
+ */
+class BookingIntervalIndexTests {
+    private static final long ITEM = 1;
+    private static final long FINISHED_ITEM = 2;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository);
+
+    @BeforeEach
+    void warmUp() {
+        // длинное бронирование 1 перекрывает короткое бронирование 2, созданное в обход сервиса
+        when(bookingRepository.findSlots(any(), any())).thenReturn(List.of(
+                slot(1, ITEM, base, base.plusDays(10)),
+                slot(2, ITEM, base.plusDays(1), base.plusDays(2)),
+                slot(3, FINISHED_ITEM, base.minusDays(4), base.minusDays(3))));
+        when(bookingRepository.existsByIdAndStatusIn(anyLong(), any())).thenReturn(true);
+        index.warmUp();
+    }
+
+    @Test
+    void overlapIsFoundBehindShorterSlot() {
+        assertTrue(index.hasOverlap(ITEM, base.plusDays(5), base.plusDays(6)));
+        assertTrue(index.hasOverlap(ITEM, base.minusDays(1), base.plusHours(1)));
+        assertFalse(index.hasOverlap(ITEM, base.plusDays(11), base.plusDays(12)));
+        assertFalse(index.hasOverlap(ITEM, base.minusDays(2), base.minusDays(1)));
+    }
+
+    @Test
+    void touchingBoundariesOverlap() {
+        assertTrue(index.hasOverlap(ITEM, base.plusDays(10), base.plusDays(11)));
+        assertTrue(index.hasOverlap(ITEM, base.minusDays(1), base));
+        assertFalse(index.hasOverlap(ITEM, base.plusDays(10).plusSeconds(1), base.plusDays(11)));
+        assertFalse(index.hasOverlap(ITEM, base.minusDays(1), base.minusSeconds(1)));
+    }
+
+    @Test
+    void betweenReturnsEveryOverlappingSlot() {
+        assertEquals(List.of(1L), ids(index.findBusy(List.of(ITEM), base.plusDays(5), base.plusDays(6))));
+        assertEquals(List.of(1L, 2L), ids(index.findBusy(List.of(ITEM), base.plusDays(2), base.plusDays(3))));
+        assertEquals(List.of(1L), ids(index.findBusy(List.of(ITEM), base.plusDays(10), base.plusDays(11))));
+        assertEquals(List.of(), ids(index.findBusy(List.of(ITEM), base.plusDays(11), base.plusDays(12))));
+    }
+
+    @Test
+    void pruneDropsFinishedSlots() {
+        assertTrue(index.findBusy(List.of(FINISHED_ITEM), base.minusDays(5), base).containsKey(FINISHED_ITEM));
+
+        index.prune();
+
+        assertTrue(index.findBusy(List.of(FINISHED_ITEM), base.minusDays(5), base).isEmpty());
+        assertEquals(List.of(1L, 2L), ids(index.findBusy(List.of(ITEM), base, base.plusDays(1))));
+        assertTrue(index.hasOverlap(ITEM, base.plusDays(5), base.plusDays(6)));
+    }
+
+    private static List<Long> ids(Map<Long, List<BookingIntervalIndex.Slot>> busy) {
+        return busy.getOrDefault(ITEM, List.of()).stream().map(BookingIntervalIndex.Slot::bookingId).toList();
+    }
+
+    private static BookingSlot slot(long id, long itemId, LocalDateTime start, LocalDateTime end) {
+        return new Slot(id, itemId, null, start, end);
+    }
+
+    private record Slot(Long getId, Long getItemId, Long getBookerId, LocalDateTime getStart, LocalDateTime getEnd)
+            implements BookingSlot {
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit;
+
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Фазы бронирований сдвигаются по часам планировщика: и по границам из очереди, и сверкой для строк,
+ * добавленных в обход сервиса. Начальная фаза бронирования, время запроса и проверка начала бронирования
+ * идут по тем же часам.
+ */
+@SpringBootTest
+class BookingPhaseTests {
+    private static final long OUTSIDE_BOOKING = 6_000_000;
+
+    @Autowired
+    private MutableClock clock;
+    @Autowired
+    private BookingPhaseScheduler bookingPhaseScheduler;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void resetClock() {
+        clock.set(Instant.now());
+        now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void reconcileMovesOutsideBookingThroughPhases() {
+        long owner = userService.createUser(new UserDto(null, "owner", "phase-owner@mail.ru")).getId();
+        long booker = userService.createUser(new UserDto(null, "booker", "phase-booker@mail.ru")).getId();
+        long item = itemService.addItem(owner, new ItemDto(null, "Лестница", "Трёхсекционная", true, null, null))
+                .getId();
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                        + "values (?, ?, ?, ?, ?, 'APPROVED')",
+                OUTSIDE_BOOKING, now.plusHours(1), now.plusHours(2), item, booker);
+
+        bookingPhaseScheduler.reconcile();
+        assertEquals("UPCOMING", phase(OUTSIDE_BOOKING));
+
+        clock.advance(Duration.ofMinutes(90));
+        bookingPhaseScheduler.reconcile();
+        assertEquals("ACTIVE", phase(OUTSIDE_BOOKING));
+
+        clock.advance(Duration.ofHours(1));
+        bookingPhaseScheduler.reconcile();
+        assertEquals("FINISHED", phase(OUTSIDE_BOOKING));
+    }
+
+    @Test
+    void boundariesAreDueByInjectedClock() throws InterruptedException {
+        long owner = userService.createUser(new UserDto(null, "owner", "queue-owner@mail.ru")).getId();
+        long booker = userService.createUser(new UserDto(null, "booker", "queue-booker@mail.ru")).getId();
+        long item = itemService.addItem(owner, new ItemDto(null, "Тачка", "Садовая", true, null, null)).getId();
+        // по системному времени бронирование впереди, а по часам планировщика оно уже закончилось
+        clock.advance(Duration.ofHours(3));
+
+        long booking = bookingService.addBooking(booker,
+                new BookingDtoRequest(now.plusHours(1), now.plusHours(2), item)).getId();
+
+        Instant deadline = Instant.now().plusSeconds(10);
+        while (!"FINISHED".equals(phase(booking))) {
+            assertTrue(Instant.now().isBefore(deadline), "Фаза бронирования " + booking + ": " + phase(booking));
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void createdRowsUseInjectedClock() {
+        long owner = userService.createUser(new UserDto(null, "owner", "clock-owner@mail.ru")).getId();
+        long booker = userService.createUser(new UserDto(null, "booker", "clock-booker@mail.ru")).getId();
+        long item = itemService.addItem(owner, new ItemDto(null, "Байдарка", "Двухместная", true, null, null))
+                .getId();
+        // по системному времени бронирование впереди, а по часам приложения уже идёт
+        clock.advance(Duration.ofMinutes(90));
+
+        long booking = bookingService.addBooking(booker,
+                new BookingDtoRequest(now.plusHours(1), now.plusHours(2), item)).getId();
+        assertEquals("ACTIVE", phase(booking));
+        assertEquals(1, validator.validate(new BookingDtoRequest(now.plusHours(1), now.plusHours(2), item)).size());
+
+        ItemRequestDtoResponse request = itemRequestService.addRequest(booker, new ItemRequestDto("Нужно весло"));
+        assertEquals(LocalDateTime.now(clock), request.getCreated());
+    }
+
+    private String phase(long bookingId) {
+        return jdbcTemplate.queryForObject("select phase from bookings where id = ?", String.class, bookingId);
+    }
+
+    @TestConfiguration
+    static class ClockConfig {
+        @Bean
+        @Primary
+        MutableClock mutableClock() {
+            return new MutableClock();
+        }
+    }
+
+    static class MutableClock extends Clock {
+        private volatile Instant instant = Instant.now();
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Те же гонки при блокировке строк вещей в БД вместо блокировок в памяти.
+ */
+@SpringBootTest(properties = {
+        "shareit.booking.lock-mode=database",
+        "logging.level.org.hibernate.SQL=OFF",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=OFF",
+        "logging.level.org.springframework.transaction.interceptor=OFF",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=OFF"})
+class DatabaseLockBookingConcurrencyTests extends BookingConcurrencyTests {
+}
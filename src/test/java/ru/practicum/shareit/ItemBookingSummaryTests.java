@@ -0,0 +1,147 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemForBookingDto;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Витрина бронирований читается из таблицы, а при старте не стирается и строится заново только пустой.
+ * Одновременные первые подтверждения по одной вещи не сталкиваются на вставке строки витрины.
+ */
+@SpringBootTest
+class ItemBookingSummaryTests {
+    private static final AtomicInteger USERS = new AtomicInteger();
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long owner;
+    private long item;
+    private long booking;
+
+    @BeforeEach
+    void approveBooking() {
+        owner = createUser();
+        long booker = createUser();
+        item = itemService.addItem(owner, new ItemDto(null, "Палатка", "Четырёхместная", true, null, null)).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        booking = bookingService.addBooking(booker, new BookingDtoRequest(start, start.plusDays(1), item)).getId();
+        bookingService.updateBooking(booking, owner, true);
+    }
+
+    @Test
+    void writesOfAnotherInstanceAreVisible() {
+        assertEquals(booking, ownItems().get(item).getNextBooking().getId());
+        assertEquals(booking, itemService.getItemDto(owner, item).getNextBooking().getId());
+        LocalDateTime end = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.SECONDS);
+
+        jdbcTemplate.update("update item_booking_summary set next_end = ? where item_id = ?", end, item);
+
+        assertEquals(end, ownItems().get(item).getNextBooking().getEnd());
+        assertEquals(end, itemService.getItemDto(owner, item).getNextBooking().getEnd());
+    }
+
+    @Test
+    void warmUpKeepsFilledTable() {
+        long unbooked = itemService.addItem(owner, new ItemDto(null, "Котелок", "Походный", true, null, null))
+                .getId();
+        // строку без подтверждённого бронирования полная перестройка удалила бы
+        jdbcTemplate.update("insert into item_booking_summary (item_id, last_booking_id, last_booker_id, "
+                        + "last_start, last_end) values (?, ?, ?, ?, ?)",
+                unbooked, booking, owner, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1));
+
+        itemBookingSummaryService.warmUp();
+
+        Map<Long, ItemForBookingDto> items = ownItems();
+        assertEquals(booking, items.get(unbooked).getLastBooking().getId());
+        assertEquals(booking, items.get(item).getNextBooking().getId());
+    }
+
+    @Test
+    void warmUpBuildsEmptyTable() {
+        jdbcTemplate.update("delete from item_booking_summary");
+
+        itemBookingSummaryService.warmUp();
+
+        BookingForItemDto next = ownItems().get(item).getNextBooking();
+        assertEquals(booking, next.getId());
+    }
+
+    @Test
+    void concurrentFirstApprovalsOfOneItemSucceed() throws Exception {
+        long booker = createUser();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long tent = itemService.addItem(owner, new ItemDto(null, "Тент", "Навес", true, null, null))
+                        .getId();
+                long first = bookingService.addBooking(booker,
+                        new BookingDtoRequest(start, start.plusHours(1), tent)).getId();
+                long second = bookingService.addBooking(booker,
+                        new BookingDtoRequest(start.plusHours(2), start.plusHours(3), tent)).getId();
+                CountDownLatch ready = new CountDownLatch(1);
+                List<Future<?>> approvals = new ArrayList<>();
+                for (long id : List.of(first, second)) {
+                    approvals.add(executor.submit(() -> {
+                        ready.await();
+                        return bookingService.updateBooking(id, owner, true);
+                    }));
+                }
+                ready.countDown();
+                for (Future<?> approval : approvals) {
+                    approval.get(1, TimeUnit.MINUTES);
+                }
+                assertEquals(first, ownItems().get(tent).getNextBooking().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Long, ItemForBookingDto> ownItems() {
+        Map<Long, ItemForBookingDto> items = new HashMap<>();
+        itemService.getAllItemsUser(owner, dto -> items.put(dto.getId(), dto));
+        return items;
+    }
+
+    private long createUser() {
+        int number = USERS.incrementAndGet();
+        return userService.createUser(new UserDto(null, "user" + number, "summary" + number + "@mail.ru")).getId();
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Импорт отвечает 202 до разбора файла, а результат разбора виден через опрос состояния задачи.
+ * Слишком большой файл отклоняется с 413, и временный файл не остаётся на диске.
+ */
+@SpringBootTest(properties = "shareit.import.max-bytes=" + ItemImportTests.MAX_BYTES)
+@AutoConfigureMockMvc
+class ItemImportTests {
+    static final int MAX_BYTES = 4096;
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @SpyBean
+    private Validator validator;
+
+    @Test
+    void importReturnsBeforeParsing() throws Exception {
+        long owner = createUser("import-async@mail.ru");
+        CountDownLatch parsing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            assertTrue(parsing.await(WAIT.toSeconds(), TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(validator).validate(any(ItemDto.class));
+
+        JsonNode accepted = importItems(owner, MediaType.APPLICATION_NDJSON,
+                "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n");
+        assertEquals("RUNNING", accepted.get("state").asText());
+        assertEquals(0, accepted.get("imported").asLong());
+
+        parsing.countDown();
+        JsonNode done = awaitFinished(owner, accepted.get("id").asText());
+        assertEquals("COMPLETED", done.get("state").asText());
+        assertEquals(1, done.get("imported").asLong());
+    }
+
+    @Test
+    void malformedRowIsReportedAndOthersImported() throws Exception {
+        long owner = createUser("import-csv@mail.ru");
+
+        JsonNode accepted = importItems(owner, MediaType.valueOf("text/csv"), """
+                name,description,available
+                Пила,Ручная,true
+                Рубанок,Старый,может быть
+                Стамеска,Острая,false
+                """);
+        JsonNode done = awaitFinished(owner, accepted.get("id").asText());
+
+        assertEquals("COMPLETED", done.get("state").asText());
+        assertEquals(3, done.get("rowsRead").asLong());
+        assertEquals(2, done.get("imported").asLong());
+        assertEquals(1, done.get("failed").asLong());
+        assertEquals(2, done.get("errors").get(0).get("row").asLong());
+    }
+
+    @Test
+    void foreignImportIsNotVisible() throws Exception {
+        long owner = createUser("import-owner@mail.ru");
+        long stranger = createUser("import-stranger@mail.ru");
+        JsonNode accepted = importItems(owner, MediaType.APPLICATION_NDJSON,
+                "{\"name\":\"Лопата\",\"description\":\"Штыковая\",\"available\":true}\n");
+        awaitFinished(owner, accepted.get("id").asText());
+
+        mockMvc.perform(get("/items/import/" + accepted.get("id").asText()).header("X-Sharer-User-Id", stranger))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void oversizedUploadIsRejected() throws Exception {
+        long owner = createUser("import-large@mail.ru");
+        String row = "{\"name\":\"Тачка\",\"description\":\"Садовая\",\"available\":true}\n";
+        long uploads = countUploads();
+
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", owner)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(row.repeat(MAX_BYTES / row.length() + 1).getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertEquals(uploads, countUploads());
+    }
+
+    private static long countUploads() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("item-import-")).count();
+        }
+    }
+
+    private JsonNode importItems(long owner, MediaType type, String body) throws Exception {
+        String response = mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", owner)
+                        .contentType(type)
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode awaitFinished(long owner, String importId) throws Exception {
+        Instant deadline = Instant.now().plus(WAIT);
+        while (true) {
+            JsonNode state = objectMapper.readTree(mockMvc.perform(get("/items/import/" + importId)
+                            .header("X-Sharer-User-Id", owner))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+            if (!"RUNNING".equals(state.get("state").asText())) {
+                return state;
+            }
+            assertTrue(Instant.now().isBefore(deadline), "Импорт " + importId + " не завершился");
+            Thread.sleep(20);
+        }
+    }
+
+    private long createUser(String email) throws Exception {
+        String response = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"user\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.mockito.InOrder;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.event.CommentAddedEvent;
+import ru.practicum.shareit.item.service.ItemCommentCounts;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
+import ru.practicum.shareit.outbox.OutboxDispatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кэш карточек и поисковый индекс обновляются сразу после коммита: диспетчер outbox здесь не работает,
+ * и чтение сразу после записи всё равно видит изменение. Число отзывов сбрасывается раньше карточки.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemReadAfterWriteTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final AtomicLong EMAILS = new AtomicLong();
+    private static final AtomicLong BOOKING_IDS = new AtomicLong(5_000_000);
+
+    @MockBean
+    private OutboxDispatcher outboxDispatcher;
+    @SpyBean
+    private ItemCommentCounts itemCommentCounts;
+    @SpyBean
+    private ItemDetailsCache itemDetailsCache;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void itemUpdateIsVisibleToNextRead() throws Exception {
+        long owner = createUser();
+        long item = read(json(post("/items"), owner,
+                "{\"name\":\"Отвёртка\",\"description\":\"Крестовая\",\"available\":true}")).get("id").asLong();
+        assertEquals("Отвёртка", read(get("/items/{id}", item).header(USER_HEADER, owner)).get("name").asText());
+        assertEquals(1, read(get("/items/search").param("text", "отвёртка")).size());
+
+        read(json(patch("/items/{id}", item), owner, "{\"name\":\"Шуруповёрт\"}"));
+        assertEquals("Шуруповёрт", read(get("/items/{id}", item).header(USER_HEADER, owner)).get("name").asText());
+        assertEquals(0, read(get("/items/search").param("text", "отвёртка")).size());
+        assertEquals(1, read(get("/items/search").param("text", "шуруповёрт")).size());
+
+        read(json(patch("/items/{id}", item), owner, "{\"available\":false}"));
+        assertEquals(false, read(get("/items/{id}", item).header(USER_HEADER, owner)).get("available").asBoolean());
+        assertEquals(0, read(get("/items/search").param("text", "шуруповёрт")).size());
+    }
+
+    @Test
+    void commentCountsAreInvalidatedBeforeItemCard() throws Exception {
+        long owner = createUser();
+        long booker = createUser();
+        long item = createItem(owner);
+        addFinishedBooking(item, booker);
+
+        read(json(post("/items/{id}/comment", item), booker, "{\"text\":\"Удобная\"}"));
+
+        InOrder order = inOrder(itemCommentCounts, itemDetailsCache);
+        order.verify(itemCommentCounts).onCommentAdded(any(CommentAddedEvent.class));
+        order.verify(itemDetailsCache).onCommentAdded(any(CommentAddedEvent.class));
+        assertEquals(1, read(get("/items/{id}", item).header(USER_HEADER, booker)).get("commentsCount").asLong());
+    }
+
+    @Test
+    void commentsArePagedByOffset() throws Exception {
+        long owner = createUser();
+        long booker = createUser();
+        long item = createItem(owner);
+        addFinishedBooking(item, booker);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            texts.add(0, "Отзыв " + i);
+            read(json(post("/items/{id}/comment", item), booker, "{\"text\":\"Отзыв " + i + "\"}"));
+        }
+
+        JsonNode page = read(get("/items/{id}/comments", item).param("from", "1").param("size", "3"));
+
+        List<String> actual = new ArrayList<>();
+        page.forEach(comment -> actual.add(comment.get("text").asText()));
+        assertEquals(texts.subList(1, 4), actual);
+    }
+
+    private long createItem(long owner) throws Exception {
+        return read(json(post("/items"), owner,
+                "{\"name\":\"Стремянка\",\"description\":\"Складная\",\"available\":true}")).get("id").asLong();
+    }
+
+    private void addFinishedBooking(long item, long booker) {
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status, phase) "
+                + "values (?, ?, ?, ?, ?, 'APPROVED', 'FINISHED')",
+                BOOKING_IDS.incrementAndGet(), start, start.plusDays(1), item, booker);
+    }
+
+    private long createUser() throws Exception {
+        long number = EMAILS.incrementAndGet();
+        return read(json(post("/users"), 0,
+                "{\"name\":\"user" + number + "\",\"email\":\"read" + number + "@mail.ru\"}")).get("id").asLong();
+    }
+
+    private JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, long userId,
+                                                      String body) {
+        return request.header(USER_HEADER, userId).contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
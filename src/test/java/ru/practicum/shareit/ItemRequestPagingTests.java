@@ -0,0 +1,44 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Чужие запросы листаются по смещению from, а не по номеру страницы from / size.
+ */
+@SpringBootTest
+class ItemRequestPagingTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Test
+    void otherRequestsArePagedByOffset() {
+        long requester = userService.createUser(new UserDto(null, "requester", "request-paging@mail.ru")).getId();
+        long reader = userService.createUser(new UserDto(null, "reader", "request-reader@mail.ru")).getId();
+        for (int i = 0; i < 5; i++) {
+            itemRequestService.addRequest(requester, new ItemRequestDto("Нужна дрель " + i));
+        }
+
+        List<Long> all = ids(itemRequestService.getOtherRequests(reader, 0, Integer.MAX_VALUE));
+        for (int from = 0; from < all.size(); from++) {
+            assertEquals(all.subList(from, Math.min(from + 2, all.size())),
+                    ids(itemRequestService.getOtherRequests(reader, from, 2)), "from=" + from);
+        }
+    }
+
+    private static List<Long> ids(List<ItemRequestDtoResponse> requests) {
+        return requests.stream().map(ItemRequestDtoResponse::getId).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemText;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Вещи, изменённые и удалённые во время загрузки поискового индекса, не перезаписываются снимком из БД.
+ */
+class ItemSearchIndexTests {
+    @Test
+    void changesDuringWarmUpSurviveSnapshot() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        // снимок прочитан до того, как вещь 2 снята с аренды, а вещь 3 переименована
+        when(itemRepository.findAvailableTexts()).thenAnswer(invocation -> {
+            index.indexAfterCommit(new Item(2L, "Пила", "Ножовка", false, null, null, 1L));
+            index.indexAfterCommit(new Item(3L, "Пила цепная", "Бензиновая", true, null, null, 1L));
+            return List.of(new Text(1L, "Пила", "Лучковая"), new Text(2L, "Пила", "Ножовка"),
+                    new Text(3L, "Рубанок", "Ручной"));
+        });
+
+        index.warmUp();
+
+        assertEquals(List.of(1L, 3L), index.search("пила", 0, 10));
+        assertEquals(List.of(), index.search("рубанок", 0, 10));
+    }
+
+    private record Text(Long id, String name, String description) implements ItemText {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиск по индексу и запасной поиск в БД (до загрузки индекса) отдают одни и те же строки в одном порядке,
+ * в том числе при смещении, не кратном размеру страницы. Устаревшие записи индекса не попадают в выдачу.
+ */
+@SpringBootTest
+class ItemSearchPagingTests {
+    private static final String TEXT = "кувалд";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indexAndDatabaseAgreeOnOffsetPages() {
+        long owner = userService.createUser(new UserDto(null, "owner", "search-paging@mail.ru")).getId();
+        addItem(owner, "Молоток", "Почти кувалда");
+        addItem(owner, "Большая кувалда", "Тяжёлая");
+        addItem(owner, "Кувалда", "Лёгкая");
+        addItem(owner, "Клин", "Бить кувалдой");
+        addItem(owner, "Кувалда малая", "Средняя");
+        addItem(owner, "Стальная кувалда", "Двуручная");
+        addItem(owner, "Зубило", "Для кувалды");
+
+        List<String> all = names(() -> itemService.getSearchOfText(TEXT, 0, null));
+        assertEquals(List.of("Кувалда", "Кувалда малая", "Большая кувалда", "Стальная кувалда",
+                "Молоток", "Клин", "Зубило"), all);
+        assertTrue(itemSearchIndex.isReady());
+        for (int from = 0; from < all.size(); from++) {
+            int offset = from;
+            List<String> indexed = names(() -> itemService.getSearchOfText(TEXT, offset, 3));
+            List<String> fallback = withoutIndex(() -> names(() -> itemService.getSearchOfText(TEXT, offset, 3)));
+            assertEquals(all.subList(from, Math.min(from + 3, all.size())), indexed, "from=" + from);
+            assertEquals(indexed, fallback, "from=" + from);
+        }
+    }
+
+    @Test
+    void staleIndexEntriesAreSkippedAndPageIsFilled() {
+        long owner = userService.createUser(new UserDto(null, "owner", "search-stale@mail.ru")).getId();
+        long hidden = addItem(owner, "Лопата штыковая", "Снята с аренды в обход сервиса");
+        long deleted = addItem(owner, "Лопата совковая", "Удалена в обход сервиса");
+        addItem(owner, "Лопата садовая", "Лёгкая");
+        addItem(owner, "Лопата снеговая", "Широкая");
+        jdbcTemplate.update("update items set is_available = false where id = ?", hidden);
+        jdbcTemplate.update("delete from items where id = ?", deleted);
+
+        assertEquals(List.of("Лопата садовая", "Лопата снеговая"),
+                names(() -> itemService.getSearchOfText("лопата", 0, 2)));
+        assertEquals(List.of("Лопата снеговая"), names(() -> itemService.getSearchOfText("лопата", 1, 2)));
+    }
+
+    private long addItem(long owner, String name, String description) {
+        return itemService.addItem(owner, new ItemDto(null, name, description, true, null, null)).getId();
+    }
+
+    private <T> T withoutIndex(Supplier<T> search) {
+        ReflectionTestUtils.setField(itemSearchIndex, "enabled", false);
+        try {
+            return search.get();
+        } finally {
+            ReflectionTestUtils.setField(itemSearchIndex, "enabled", true);
+        }
+    }
+
+    private static List<String> names(Supplier<List<ItemDto>> search) {
+        return search.get().stream().map(ItemDto::getName).toList();
+    }
+}
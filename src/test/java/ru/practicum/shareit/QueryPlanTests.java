@@ -0,0 +1,271 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.StateBooking;
+import ru.practicum.shareit.booking.Phase;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepositoryCustom;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по планам H2, что запросы репозиториев на заполненной базе идут по индексам.
+ * Новый метод репозитория без сценария в {@link #finders()} роняет {@link #everyFinderIsCovered()}.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.QueryPlanTests$CapturingInspector")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+    private static final int USERS = 500;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 20_000;
+    private static final int COMMENTS = 5_000;
+    private static final int OUTBOX_EVENTS = 2_000;
+    private static final int REQUESTS = 1_000;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BookingRepository.class, BookingRepositoryCustom.class, ItemRepository.class, CommentRepository.class,
+            UserRepository.class, ItemBookingSummaryRepository.class, OutboxRepository.class,
+            ItemRequestRepository.class);
+    // поиск по подстроке не может использовать B-tree индекс, а загрузка индексов в память читает всю таблицу
+    private static final Set<String> FULL_SCAN_ALLOWED =
+            Set.of("findByNameOrDescription", "findAvailableTexts", "findAllIds", "streamAll", "streamSlotsByStatus",
+                    "findOpenTexts", "resolvePhases", "existsByStatus");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private OutboxRepository outboxRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long id = 1; id <= REQUESTS; id++) {
+            requests.add(new Object[]{id, "request" + id, id % USERS + 1, NOW.minusHours(id)});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into requests (id, description, requester_id, created) values (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "item" + id, "description" + id, id % 3 != 0, id % USERS + 1,
+                    id % 4 == 0 ? id / 4 % REQUESTS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) "
+                + "values (?, ?, ?, ?, ?, ?)", items);
+
+        List<Object[]> bookings = new ArrayList<>();
+        Status[] statuses = Status.values();
+        for (long id = 1; id <= BOOKINGS; id++) {
+            LocalDateTime start = NOW.minusHours(BOOKINGS - BOOKINGS / 20 - id);
+            bookings.add(new Object[]{id, start, start.plusHours(12), id % ITEMS + 1, (id * 7) % USERS + 1,
+                    statuses[(int) (id % statuses.length)].name(), Phase.at(start, start.plusHours(12), NOW).name()});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status, phase) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (long id = 1; id <= COMMENTS; id++) {
+            comments.add(new Object[]{id, "comment" + id, id % ITEMS + 1, id % USERS + 1, NOW.minusHours(id)});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)", comments);
+
+        List<Object[]> events = new ArrayList<>();
+        for (long id = 1; id <= OUTBOX_EVENTS; id++) {
+            events.add(new Object[]{id, "ItemUpdatedEvent", "{\"itemId\":" + id + "}", NOW, 5});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into outbox_events (id, type, payload, created, attempts) values (?, ?, ?, ?, ?)", events);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> everyFinderUsesIndex() {
+        return finders().entrySet().stream()
+                .filter(entry -> !FULL_SCAN_ALLOWED.contains(entry.getKey()))
+                .map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+                    for (String sql : capture(entry.getValue())) {
+                        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+                        assertFalse(plan.contains(".tableScan"), () -> "Полное сканирование таблицы:\n" + plan);
+                    }
+                }));
+    }
+
+    @Test
+    void everyFinderIsCovered() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic())
+                    .map(Method::getName)
+                    .forEach(declared::add);
+        }
+        assertEquals(declared, new TreeSet<>(finders().keySet()), "Для новых методов репозиториев нужен сценарий");
+    }
+
+    private Map<String, Runnable> finders() {
+        Long user = 42L;
+        Long item = 7L;
+        BookingCursor cursor = new BookingCursor(NOW, 100L);
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+
+        finders.put("findLastSlots", () ->
+                bookingRepository.findLastSlots(item, Status.APPROVED, NOW, Limit.of(1)));
+        finders.put("findNextSlots", () ->
+                bookingRepository.findNextSlots(item, Status.APPROVED, NOW, Limit.of(1)));
+        finders.put("streamSlotsByStatus", () ->
+                inTransaction(() -> drain(bookingRepository.streamSlotsByStatus(Status.APPROVED))));
+        finders.put("findItemIdsByBookerId", () -> bookingRepository.findItemIdsByBookerId(user));
+        finders.put("findSlotsByBookerId", () -> bookingRepository.findSlotsByBookerId(user, NOW));
+        finders.put("findByItemId", () -> bookingRepository.findByItemId(item));
+        finders.put("findById", () -> bookingRepository.findById(1L));
+        finders.put("findAllById", () -> bookingRepository.findAllById(List.of(1L, 2L, 3L)));
+        finders.put("existsByItemIdAndBookerIdAndStatusAndEndBefore", () ->
+                bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(item, user, Status.APPROVED, NOW));
+        finders.put("findSlots", () -> bookingRepository.findSlots(List.of(Status.WAITING, Status.APPROVED), NOW));
+        finders.put("existsOverlap", () -> bookingRepository.existsOverlap(
+                item, List.of(Status.WAITING, Status.APPROVED), NOW, NOW.plusDays(1)));
+        finders.put("existsByIdAndStatusIn", () ->
+                bookingRepository.existsByIdAndStatusIn(1L, List.of(Status.WAITING, Status.APPROVED)));
+        finders.put("existsByStatus", () -> bookingRepository.existsByStatus(Status.APPROVED));
+        finders.put("findSlotsByPhaseIn", () ->
+                bookingRepository.findSlotsByPhaseIn(List.of(Phase.UPCOMING, Phase.ACTIVE)));
+        finders.put("updatePhase", () -> inTransaction(() ->
+                bookingRepository.updatePhase(List.of(1L, 2L), Phase.ACTIVE, List.of(Phase.UPCOMING))));
+        finders.put("resolvePhases", () -> inTransaction(() -> bookingRepository.resolvePhases(NOW)));
+        finders.put("findSlotsByItemIdIn", () -> bookingRepository.findSlotsByItemIdIn(List.of(item, item + 1),
+                List.of(Status.WAITING, Status.APPROVED), NOW, NOW.plusDays(30)));
+        finders.put("aggregateOwnerStats", () ->
+                bookingRepository.aggregateOwnerStats(user, NOW.minusDays(30), NOW, NOW.plusDays(7)));
+        finders.put("existsValidBooking", () -> bookingRepository.existsValidBooking(item, Status.APPROVED, NOW, user));
+        finders.put("findBookerBookings", () -> {
+            bookingRepository.findBookerBookings(user, StateBooking.ALL, null, 0, 20);
+            for (StateBooking state : StateBooking.values()) {
+                bookingRepository.findBookerBookings(user, state, cursor, 0, 20);
+            }
+        });
+        finders.put("findOwnerBookings", () -> {
+            bookingRepository.findOwnerBookings(user, StateBooking.ALL, null, 0, 20);
+            for (StateBooking state : StateBooking.values()) {
+                bookingRepository.findOwnerBookings(user, state, cursor, 0, 20);
+            }
+        });
+        finders.put("streamOwnerBookings", () -> inTransaction(() -> {
+            for (StateBooking state : StateBooking.values()) {
+                drain(bookingRepository.streamOwnerBookings(user, state));
+            }
+        }));
+        finders.put("streamWithBookingsByOwnerId", () ->
+                inTransaction(() -> drain(itemRepository.streamWithBookingsByOwnerId(user))));
+        finders.put("findIdsByOwnerId", () -> itemRepository.findIdsByOwnerId(user));
+        finders.put("findWithLockByIdInOrderById", () ->
+                inTransaction(() -> itemRepository.findWithLockByIdInOrderById(List.of(1L, 2L, 3L))));
+        finders.put("findByNameOrDescription", () ->
+                itemRepository.findByNameOrDescription("item1", PageRequest.of(0, 20)));
+        finders.put("findDtosByIdIn", () -> itemRepository.findDtosByIdIn(List.of(1L, 2L, 3L)));
+        finders.put("findAvailableDtosByIdIn", () -> itemRepository.findAvailableDtosByIdIn(List.of(1L, 2L, 3L)));
+        finders.put("findAvailableTexts", () -> itemRepository.findAvailableTexts());
+        finders.put("findAnswersByRequestIdIn", () -> itemRepository.findAnswersByRequestIdIn(List.of(1L, 2L, 3L)));
+        finders.put("findLatestByItemIds", () -> commentRepository.findLatestByItemIds(List.of(1L, 2L, 3L), 10));
+        finders.put("countByItemIds", () -> commentRepository.countByItemIds(List.of(1L, 2L, 3L)));
+        finders.put("findDtosByItemId", () -> commentRepository.findDtosByItemId(item, PageRequest.of(0, 10)));
+        finders.put("findAllIds", () -> userRepository.findAllIds());
+        finders.put("findWithLockByItemId", () ->
+                inTransaction(() -> summaryRepository.findWithLockByItemId(item)));
+        finders.put("findByNextStartLessThanEqual", () -> summaryRepository.findByNextStartLessThanEqual(NOW));
+        finders.put("streamAll", () -> inTransaction(() -> drain(userRepository.streamAll())));
+        finders.put("findByRequesterIdOrderByCreatedDescIdDesc", () ->
+                itemRequestRepository.findByRequesterIdOrderByCreatedDescIdDesc(user));
+        finders.put("findByRequesterIdNotOrderByCreatedDescIdDesc", () ->
+                itemRequestRepository.findByRequesterIdNotOrderByCreatedDescIdDesc(user, PageRequest.of(0, 20)));
+        finders.put("findOpenTexts", () -> itemRequestRepository.findOpenTexts());
+        finders.put("findByAttemptsLessThanOrderById", () ->
+                outboxRepository.findByAttemptsLessThanOrderById(5, Limit.of(100)));
+        finders.put("incrementAttempts", () -> inTransaction(() -> outboxRepository.incrementAttempts(List.of(1L, 2L))));
+        return finders;
+    }
+
+    private void inTransaction(Runnable finder) {
+        transactionTemplate.executeWithoutResult(status -> finder.run());
+    }
+
+    private static void drain(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(row -> {
+            });
+        }
+    }
+
+    private static List<String> capture(Runnable finder) {
+        CapturingInspector.STATEMENTS.clear();
+        finder.run();
+        List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+        assertTrue(!statements.isEmpty(), "Запрос не был выполнен");
+        return statements;
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
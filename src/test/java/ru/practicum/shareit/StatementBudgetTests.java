@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * С {@code shareit.sql.budget.fail=true} каждый эндпоинт вещей и бронирований укладывается в бюджет SQL,
+ * иначе запрос завершается исключением и тест падает.
+ */
+@SpringBootTest(properties = {"shareit.sql.budget.fail=true", "shareit.sql.budget.max-time=PT10S"})
+@AutoConfigureMockMvc
+class StatementBudgetTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final AtomicLong EMAILS = new AtomicLong();
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void itemAndBookingEndpointsStayWithinBudget() throws Exception {
+        long owner = createUser();
+        long booker = createUser();
+        List<Long> items = List.of(createItem(owner), createItem(owner), createItem(owner));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        perform(json(patch("/items/{id}", items.get(0)), owner, "{\"name\":\"Перфоратор\"}"));
+        long single = id(perform(json(post("/bookings"), booker, booking(start, items.get(0)))));
+        String batch = perform(json(post("/bookings/batch"), booker,
+                "[" + booking(start, items.get(1)) + "," + booking(start, items.get(2)) + "]"));
+        perform(patch("/bookings/{id}", single).header(USER_HEADER, owner).param("approved", "true"));
+        List<Long> batchIds = new ArrayList<>();
+        objectMapper.readTree(batch).forEach(booking -> batchIds.add(booking.get("id").asLong()));
+        perform(json(patch("/bookings/approve-batch"), owner, batchIds.toString()).param("approved", "false"));
+        perform(get("/bookings/{id}", single).header(USER_HEADER, booker));
+        for (String state : List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED")) {
+            perform(get("/bookings").header(USER_HEADER, booker).param("state", state).param("size", "10"));
+            perform(get("/bookings/owner").header(USER_HEADER, owner).param("state", state));
+        }
+
+        jdbcTemplate.update("insert into bookings (id, start_date, end_date, item_id, booker_id, status, phase) "
+                        + "values (?, ?, ?, ?, ?, 'APPROVED', 'FINISHED')",
+                1_000_000 + single, start.minusDays(3), start.minusDays(2), items.get(0), booker);
+        perform(json(post("/items/{id}/comment", items.get(0)), booker, "{\"text\":\"Удобный\"}"));
+        perform(get("/items/{id}", items.get(0)).header(USER_HEADER, owner));
+        perform(get("/items/{id}", items.get(0)).header(USER_HEADER, booker));
+        perform(get("/items/{id}/comments", items.get(0)));
+        perform(get("/items").header(USER_HEADER, owner));
+        perform(get("/items/search").param("text", "дрель"));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "shareit.sql.budget.max-statements=0")
+    class TightBudget {
+        @Autowired
+        private MockMvc tightMvc;
+
+        @Test
+        void violationFailsRequest() {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+                    tightMvc.perform(get("/items/{id}/comments", Long.MAX_VALUE)));
+            assertTrue(e.getMessage().contains("GET /items/{item-id}/comments"), e.getMessage());
+        }
+    }
+
+    private String perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus(), () -> request.toString());
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private long createUser() throws Exception {
+        long number = EMAILS.incrementAndGet();
+        return id(perform(json(post("/users"), 0,
+                "{\"name\":\"user" + number + "\",\"email\":\"budget" + number + "@mail.ru\"}")));
+    }
+
+    private long createItem(long owner) throws Exception {
+        return id(perform(json(post("/items"), owner,
+                "{\"name\":\"Дрель\",\"description\":\"Ударная дрель\",\"available\":true}")));
+    }
+
+    private long id(String body) throws Exception {
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private static String booking(LocalDateTime start, long itemId) {
+        return "{\"start\":\"" + start + "\",\"end\":\"" + start.plusHours(1) + "\",\"itemId\":" + itemId + "}";
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, long userId,
+                                                      String body) {
+        return request.header(USER_HEADER, userId).contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.booking.Phase;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+import ru.practicum.shareit.util.RequestStatements;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов на эндпоинт ограничено и не зависит от размера выдачи:
+ * каждый сценарий выполняется для пользователя с одной записью и с сотнями записей.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementCountTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final long MAX_STATEMENTS = 3;
+    private static final long SMALL_OWNER = 1001;
+    private static final long LARGE_OWNER = 1002;
+    private static final long SMALL_BOOKER = 1003;
+    private static final long LARGE_BOOKER = 1004;
+    private static final long SMALL_ITEM = 1001;
+    private static final long LARGE_ITEM = 1002;
+    private static final int LARGE_ITEMS = 30;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int COMMENTS_PER_ITEM = 5;
+    private static final int OTHER_BOOKERS = 20;
+    private static final long SMALL_REQUEST = 1001;
+    private static final long LARGE_REQUEST = 1002;
+    private static final int LARGE_REQUESTS = 20;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserExistenceIndex userExistenceIndex;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> users = new ArrayList<>();
+        for (long id = SMALL_OWNER; id <= LARGE_BOOKER + OTHER_BOOKERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        requests.add(new Object[]{SMALL_REQUEST, "Нужна стремянка", SMALL_BOOKER, now});
+        for (long id = LARGE_REQUEST; id < LARGE_REQUEST + LARGE_REQUESTS; id++) {
+            requests.add(new Object[]{id, "Нужна дрель " + id, LARGE_BOOKER, now.minusMinutes(id)});
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into requests (id, description, requester_id, created) values (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        items.add(new Object[]{SMALL_ITEM, "Стремянка", "Одна вещь", true, SMALL_OWNER, SMALL_REQUEST});
+        for (long id = LARGE_ITEM; id < LARGE_ITEM + LARGE_ITEMS; id++) {
+            items.add(new Object[]{id, "Дрель " + id, "Много вещей", true, LARGE_OWNER,
+                    LARGE_REQUEST + (id - LARGE_ITEM) % LARGE_REQUESTS});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) "
+                + "values (?, ?, ?, ?, ?, ?)", items);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        bookings.add(new Object[]{SMALL_ITEM, now.minusDays(2), now.minusDays(1), SMALL_ITEM, SMALL_BOOKER,
+                Status.APPROVED.name(), Phase.FINISHED.name()});
+        comments.add(new Object[]{SMALL_ITEM, "Удобная", SMALL_ITEM, SMALL_BOOKER, now});
+        long bookingId = SMALL_ITEM + 1;
+        long commentId = SMALL_ITEM + 1;
+        for (long item = LARGE_ITEM; item < LARGE_ITEM + LARGE_ITEMS; item++) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i - BOOKINGS_PER_ITEM / 2);
+                long booker = i % 2 == 0 ? LARGE_BOOKER : LARGE_BOOKER + 1 + bookingId % OTHER_BOOKERS;
+                bookings.add(new Object[]{bookingId++, start, start.plusHours(12), item, booker,
+                        Status.APPROVED.name(), Phase.at(start, start.plusHours(12), now).name()});
+            }
+            for (int i = 0; i < COMMENTS_PER_ITEM; i++) {
+                comments.add(new Object[]{commentId++, "Отзыв " + i, item,
+                        LARGE_BOOKER + 1 + commentId % OTHER_BOOKERS, now.minusHours(i)});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status, phase) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate(
+                "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)", comments);
+
+        userExistenceIndex.warmUp();
+        itemSearchIndex.warmUp();
+        // витрина перестраивается только пустой, а бронирования добавлены в обход сервиса
+        jdbcTemplate.update("delete from item_booking_summary");
+        itemBookingSummaryService.warmUp();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> statementsPerEndpointAreBounded() {
+        return Stream.of(
+                scenario("GET /bookings",
+                        get("/bookings").header(USER_HEADER, SMALL_BOOKER),
+                        get("/bookings").header(USER_HEADER, LARGE_BOOKER)),
+                scenario("GET /bookings/owner",
+                        get("/bookings/owner").header(USER_HEADER, SMALL_OWNER),
+                        get("/bookings/owner").header(USER_HEADER, LARGE_OWNER)),
+                scenario("GET /bookings/{id}",
+                        get("/bookings/{id}", SMALL_ITEM).header(USER_HEADER, SMALL_OWNER),
+                        get("/bookings/{id}", SMALL_ITEM + 1).header(USER_HEADER, LARGE_OWNER)),
+                scenario("GET /bookings/owner/stats",
+                        get("/bookings/owner/stats").header(USER_HEADER, SMALL_OWNER),
+                        get("/bookings/owner/stats").header(USER_HEADER, LARGE_OWNER)),
+                scenario("GET /items",
+                        get("/items").header(USER_HEADER, SMALL_OWNER),
+                        get("/items").header(USER_HEADER, LARGE_OWNER)),
+                scenario("GET /items/{id}",
+                        get("/items/{id}", SMALL_ITEM).header(USER_HEADER, SMALL_OWNER),
+                        get("/items/{id}", LARGE_ITEM).header(USER_HEADER, LARGE_OWNER)),
+                scenario("GET /items/search",
+                        get("/items/search").param("text", "стремянка"),
+                        get("/items/search").param("text", "дрель")),
+                scenario("GET /requests",
+                        get("/requests").header(USER_HEADER, SMALL_BOOKER),
+                        get("/requests").header(USER_HEADER, LARGE_BOOKER)),
+                scenario("GET /requests/all",
+                        get("/requests/all").header(USER_HEADER, SMALL_OWNER).param("size", "1"),
+                        get("/requests/all").header(USER_HEADER, SMALL_OWNER).param("size", "20")));
+    }
+
+    private DynamicTest scenario(String name, RequestBuilder small, RequestBuilder large) {
+        return DynamicTest.dynamicTest(name, () -> {
+            long smallCount = countStatements(small);
+            long largeCount = countStatements(large);
+            assertTrue(largeCount <= MAX_STATEMENTS, () -> name + ": " + largeCount + " запросов");
+            assertEquals(smallCount, largeCount, () -> name + ": число запросов зависит от размера выдачи");
+        });
+    }
+
+    private long countStatements(RequestBuilder request) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, result.getResponse().getStatus());
+        }
+        // считается только SQL самого запроса, а не фоновых задач, работающих в это время
+        RequestStatements statements = (RequestStatements) result.getRequest()
+                .getAttribute(RequestStatements.class.getName());
+        return statements.statements();
+    }
+}
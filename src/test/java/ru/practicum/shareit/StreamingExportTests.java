@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Потоковые выгрузки получают настроенный таймаут асинхронного запроса, а не 30 секунд контейнера.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamingExportTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${spring.mvc.async.request-timeout}")
+    private Duration timeout;
+
+    @Test
+    void exportsUseConfiguredTimeout() throws Exception {
+        assertTrue(timeout.compareTo(Duration.ofSeconds(30)) > 0);
+        String user = mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"exporter\",\"email\":\"exporter@mail.ru\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long userId = objectMapper.readTree(user).get("id").asLong();
+
+        assertTimeout(get("/users"));
+        assertTimeout(get("/items").header(USER_HEADER, userId));
+        assertTimeout(get("/bookings").header(USER_HEADER, userId).accept(MediaType.APPLICATION_NDJSON));
+        assertTimeout(get("/bookings/owner").header(USER_HEADER, userId));
+    }
+
+    private void assertTimeout(RequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+        assertEquals(timeout.toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+}
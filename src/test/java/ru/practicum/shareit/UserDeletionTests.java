@@ -0,0 +1,76 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бронирования удаляются каскадом вместе с пользователем, и их интервалы не остаются занятыми в индексе.
+ */
+@SpringBootTest
+class UserDeletionTests {
+    private static final AtomicLong EMAILS = new AtomicLong();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Test
+    void deletedBookerFreesItem() {
+        long owner = createUser();
+        long booker = createUser();
+        long item = createItem(owner);
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = from.plusDays(3);
+        bookingService.addBooking(booker, new BookingDtoRequest(from.plusDays(1), from.plusDays(2), item));
+        assertEquals(2, itemService.getAvailability(item, from, to).getFree().size());
+
+        userService.deleteUser(booker);
+
+        assertEquals(List.of(new FreeIntervalDto(from, to)), itemService.getAvailability(item, from, to).getFree());
+    }
+
+    @Test
+    void deletedOwnerLeavesNoSlots() {
+        long owner = createUser();
+        long booker = createUser();
+        long item = createItem(owner);
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        bookingService.addBooking(booker, new BookingDtoRequest(from, from.plusDays(1), item));
+        assertEquals(1, bookingIntervalIndex.findBusy(List.of(item), from, from.plusDays(2)).size());
+
+        userService.deleteUser(owner);
+
+        assertTrue(bookingIntervalIndex.findBusy(List.of(item), from, from.plusDays(2)).isEmpty());
+    }
+
+    private long createUser() {
+        long number = EMAILS.incrementAndGet();
+        return userService.createUser(new UserDto(null, "user" + number, "deleted" + number + "@mail.ru")).getId();
+    }
+
+    private long createItem(long owner) {
+        return itemService.addItem(owner, new ItemDto(null, "Палатка", "Двухместная", true, null, null)).getId();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Пользователи, созданные и удалённые во время загрузки индекса, не теряются снимком из БД,
+ * а созданные в обход индекса находятся через БД.
+ */
+class UserExistenceIndexTests {
+    @Test
+    void changesDuringWarmUpSurviveSnapshot() {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserExistenceIndex index = new UserExistenceIndex(userRepository);
+        // снимок прочитан до того, как пользователь 3 создан, а пользователь 2 удалён
+        when(userRepository.findAllIds()).thenAnswer(invocation -> {
+            index.addAfterCommit(3);
+            index.removeAfterCommit(2);
+            return List.of(1L, 2L);
+        });
+
+        index.warmUp();
+
+        assertTrue(index.exists(1));
+        assertFalse(index.exists(2));
+        assertTrue(index.exists(3));
+        assertFalse(index.exists(4));
+        verify(userRepository, never()).existsById(1L);
+        verify(userRepository, never()).existsById(3L);
+    }
+
+    @Test
+    void userCreatedElsewhereIsFoundAndRemembered() {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserExistenceIndex index = new UserExistenceIndex(userRepository);
+        when(userRepository.findAllIds()).thenReturn(List.of(1L));
+        index.warmUp();
+        // пользователь 2 создан другим экземпляром после загрузки индекса
+        when(userRepository.existsById(2L)).thenReturn(true);
+
+        assertTrue(index.exists(2));
+        assertTrue(index.exists(2));
+        verify(userRepository, times(1)).existsById(2L);
+    }
+}